@@ -1,53 +1,71 @@
 package com.vdt_project1.loan_management.configuration;
 
 import com.nimbusds.jose.JOSEException;
-import com.vdt_project1.loan_management.dto.request.IntrospectRequest;
+import com.nimbusds.jwt.SignedJWT;
+import com.vdt_project1.loan_management.exception.AppException;
 import com.vdt_project1.loan_management.service.AuthenticationService;
+import com.vdt_project1.loan_management.service.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.spec.SecretKeySpec;
 import java.text.ParseException;
-import java.util.Objects;
+import java.util.Collections;
+import java.util.Map;
 
 @Component
 public class CustomJwtDecoder implements JwtDecoder {
-    @Value("${jwt.signerKey}")
-    private String signerKey;
-
     @Autowired
     private AuthenticationService authenticationService;
 
-    private NimbusJwtDecoder nimbusJwtDecoder = null;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private final Converter<Map<String, Object>, Map<String, Object>> claimSetConverter = MappedJwtClaimSetConverter
+            .withDefaults(Collections.emptyMap());
 
     @Override
     public Jwt decode(String token) throws JwtException {
+        // Repeat requests with the same token skip verification, but a revoked token is never served
+        Jwt cached = verifiedTokenCache.get(token);
+        if (cached != null && !tokenRevocationService.isRevoked(cached.getId())) {
+            return cached;
+        }
 
+        // Parse, verify the MAC, check expiry and revocation in a single pass
+        SignedJWT signedJWT;
         try {
-            var response = authenticationService.introspect(IntrospectRequest.builder()
-                    .token(token)
-                    .build());
-
-            if (!response.isValid())
-                throw new JwtException("Token invalid");
+            signedJWT = authenticationService.verifyToken(token, false);
+        } catch (AppException e) {
+            throw new BadJwtException("Token invalid");
         } catch (JOSEException | ParseException e) {
-            throw new JwtException(e.getMessage());
+            throw new BadJwtException(e.getMessage(), e);
         }
 
-        if (Objects.isNull(nimbusJwtDecoder)) {
-            SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS256");
-            nimbusJwtDecoder = NimbusJwtDecoder
-                    .withSecretKey(secretKeySpec)
-                    .macAlgorithm(MacAlgorithm.HS256)
-                    .build();
+        try {
+            Jwt jwt = toJwt(token, signedJWT);
+            verifiedTokenCache.put(token, jwt);
+            return jwt;
+        } catch (ParseException e) {
+            throw new BadJwtException(e.getMessage(), e);
         }
+    }
+
+    private Jwt toJwt(String token, SignedJWT signedJWT) throws ParseException {
+        Map<String, Object> headers = signedJWT.getHeader().toJSONObject();
+        Map<String, Object> claims = claimSetConverter.convert(signedJWT.getJWTClaimsSet().getClaims());
 
-        return nimbusJwtDecoder.decode(token);
+        return Jwt.withTokenValue(token)
+                .headers(h -> h.putAll(headers))
+                .claims(c -> c.putAll(claims))
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.vdt_project1.loan_management.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.disbursement-import")
+public class DisbursementImportProperties {
+    private int maxRows = 50000; // rows accepted in one import file
+    private int batchSize = 1000; // rows per JDBC batch and ids per IN list
+}
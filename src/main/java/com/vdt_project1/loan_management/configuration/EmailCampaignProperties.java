@@ -0,0 +1,15 @@
+package com.vdt_project1.loan_management.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.mail.campaign")
+public class EmailCampaignProperties {
+    private int renderThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private int pageSize = 1000; // applications loaded from the database at a time
+    private int chunkSize = 100; // emails rendered by one worker and written to the outbox in one transaction
+    private long staleAfter = 600000; // ms without progress after which a QUEUED or RUNNING campaign counts as abandoned
+}
@@ -0,0 +1,13 @@
+package com.vdt_project1.loan_management.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+    private int fetchSize = 1000; // rows pulled from the database cursor per round trip
+    private long timeout = 3600000; // ms, upper bound for one streamed export response
+}
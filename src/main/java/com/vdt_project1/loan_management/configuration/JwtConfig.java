@@ -0,0 +1,29 @@
+package com.vdt_project1.loan_management.configuration;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+
+// Signer and verifier are thread-safe, so one instance per signer key is shared
+// by token issuing and by every authenticated request
+@Configuration
+public class JwtConfig {
+
+    @Bean
+    public JWSSigner jwsSigner(@Value("${jwt.signerKey}") String signerKey) throws JOSEException {
+        return new MACSigner(signerKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Verifies any HMAC algorithm, AuthenticationService.verifyToken pins HS256 before calling it
+    @Bean
+    public JWSVerifier jwsVerifier(@Value("${jwt.signerKey}") String signerKey) throws JOSEException {
+        return new MACVerifier(signerKey.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,17 @@
+package com.vdt_project1.loan_management.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.mail.outbox")
+public class MailOutboxProperties {
+    private int batchSize = 50;
+    private int maxBatchesPerRun = 20;
+    private int maxAttempts = 8;
+    private long initialBackoff = 30000; // ms, doubled after every failed attempt
+    private long maxBackoff = 3600000; // ms
+    private long lease = 300000; // ms a claimed message is reserved for one dispatcher
+}
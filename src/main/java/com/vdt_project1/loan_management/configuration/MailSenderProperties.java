@@ -0,0 +1,16 @@
+package com.vdt_project1.loan_management.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.mail.sender")
+public class MailSenderProperties {
+    private int poolSize = 2; // open SMTP connections, also the number of parallel send workers
+    private int maxMessagesPerConnection = 100; // reconnect after this many messages, providers cap long sessions
+    private long borrowTimeout = 10000; // ms to wait for a free connection
+    private double rateLimit = 10; // messages per second allowed by the provider, 0 disables throttling
+    private int burst = 10; // messages that may go out back to back before throttling kicks in
+}
@@ -0,0 +1,16 @@
+package com.vdt_project1.loan_management.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// Kept apart from SecurityConfig, whose JWT decoder chain depends on the encoder through PasswordHashingService
+@Configuration
+public class PasswordEncoderConfig {
+
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties passwordHashingProperties) {
+        return new BCryptPasswordEncoder(passwordHashingProperties.getStrength());
+    }
+}
@@ -0,0 +1,15 @@
+package com.vdt_project1.loan_management.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.password-hashing")
+public class PasswordHashingProperties {
+    private int strength = 10; // BCrypt cost factor
+    private int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    private int queueCapacity = 64;
+    private long timeout = 5000; // ms a caller waits for its hash before giving up
+}
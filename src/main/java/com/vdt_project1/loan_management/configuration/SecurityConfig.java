@@ -1,6 +1,8 @@
 package com.vdt_project1.loan_management.configuration;
 
+import com.vdt_project1.loan_management.service.RoleScopeCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,8 +12,8 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
@@ -19,6 +21,8 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.util.Collection;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -29,6 +33,12 @@ public class SecurityConfig {
     @Autowired
     private CustomJwtDecoder customJwtDecoder;
 
+    @Autowired
+    private RoleScopeCache roleScopeCache;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.cors(Customizer.withDefaults());
@@ -85,12 +95,16 @@ public class SecurityConfig {
         jwtGrantedAuthoritiesConverter.setAuthorityPrefix("");
 
         JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(jwtGrantedAuthoritiesConverter);
+        // Tokens whose scope matches a role's current scope reuse its precomputed authority set
+        Converter<Jwt, Collection<GrantedAuthority>> scopeConverter = jwt -> {
+            RoleScopeCache.RoleScope roleScope = roleScopeCache.findByScope(jwt.getClaimAsString("scope"));
+            return roleScope != null
+                    ? roleScope.authorities()
+                    : jwtGrantedAuthoritiesConverter.convert(jwt);
+        };
+        // The authorities only depend on the token's scope, so a cached token keeps the ones converted first
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(
+                jwt -> verifiedTokenCache.authorities(jwt, scopeConverter::convert));
         return jwtAuthenticationConverter;
     }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
-    }
 }
\ No newline at end of file
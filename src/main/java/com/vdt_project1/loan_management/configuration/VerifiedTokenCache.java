@@ -0,0 +1,98 @@
+package com.vdt_project1.loan_management.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of already verified access tokens and the authorities granted
+ * by their scope, keyed by the raw token. The raw token is held in memory
+ * anyway: it is the token value of the cached Jwt.
+ * <p>
+ * An entry lives for at most {@code jwt.verified-token-cache.ttl} seconds and
+ * never beyond the token's own expiration time. Callers still have to check
+ * revocation on a hit; this cache only saves the parsing, the MAC verification
+ * and the scope conversion.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final class Entry {
+        final Jwt jwt;
+        final long expiresAt;
+        // Filled in by the first request that converts the cached Jwt
+        volatile Collection<GrantedAuthority> authorities;
+
+        Entry(Jwt jwt, long expiresAt) {
+            this.jwt = jwt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${jwt.verified-token-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${jwt.verified-token-cache.ttl:60}")
+    private long ttlSeconds;
+
+    public Jwt get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(token, entry);
+            return null;
+        }
+        return entry.jwt;
+    }
+
+    // Authorities of a Jwt served by this cache, converted once per entry; other Jwts are converted every time
+    public Collection<GrantedAuthority> authorities(Jwt jwt, Function<Jwt, Collection<GrantedAuthority>> converter) {
+        Entry entry = entries.get(jwt.getTokenValue());
+        if (entry == null || entry.jwt != jwt) {
+            return converter.apply(jwt);
+        }
+        Collection<GrantedAuthority> authorities = entry.authorities;
+        if (authorities == null) {
+            authorities = converter.apply(jwt);
+            entry.authorities = authorities;
+        }
+        return authorities;
+    }
+
+    public void put(String token, Jwt jwt) {
+        if (entries.size() >= maxSize) {
+            evictExpired();
+            if (entries.size() >= maxSize) {
+                // Full of live entries, the token is simply verified again next time
+                return;
+            }
+        }
+
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        Instant tokenExpiresAt = jwt.getExpiresAt();
+        if (tokenExpiresAt != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiresAt.toEpochMilli());
+        }
+        entries.put(token, new Entry(jwt, expiresAt));
+    }
+
+    public void evict(String token) {
+        entries.remove(token);
+    }
+
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+}
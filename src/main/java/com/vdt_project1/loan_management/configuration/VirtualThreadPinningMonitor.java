@@ -0,0 +1,82 @@
+package com.vdt_project1.loan_management.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, typically while
+ * blocking inside a synchronized block (JavaMail's SMTP transport, some JDBC
+ * paths). Listens to the JFR jdk.VirtualThreadPinned event in-process, logs the
+ * offending frames and counts occurrences in virtual_threads.pinned.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(prefix = "app.virtual-threads.pinning-detection", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class VirtualThreadPinningMonitor {
+    Counter pinnedCounter;
+
+    @NonFinal
+    @Value("${app.virtual-threads.pinning-detection.threshold:20ms}")
+    Duration threshold;
+
+    @NonFinal
+    @Value("${app.virtual-threads.pinning-detection.stack-depth:8}")
+    int stackDepth;
+
+    @NonFinal
+    RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinnedCounter = Counter.builder("virtual_threads.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recordingStream.startAsync();
+        log.info("Virtual thread pinning detection enabled, threshold {}", threshold);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        String frames = event.getStackTrace() == null ? "<no stack trace>"
+                : event.getStackTrace().getFrames().stream()
+                        .limit(stackDepth)
+                        .map(this::formatFrame)
+                        .collect(Collectors.joining("\n\tat "));
+        log.warn("Virtual thread pinned for {} ms\n\tat {}", event.getDuration().toMillis(), frames);
+    }
+
+    private String formatFrame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    @PreDestroy
+    void stop() {
+        recordingStream.close();
+    }
+}
@@ -9,7 +9,6 @@ import com.vdt_project1.loan_management.dto.response.IntrospectResponse;
 import com.vdt_project1.loan_management.dto.response.UserResponse;
 import com.vdt_project1.loan_management.service.AuthenticationService;
 import com.vdt_project1.loan_management.service.UserService;
-import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -69,7 +68,7 @@ public class AuthenticationController {
     }
 
     @PostMapping("/password-reset/email/{email}")
-    ApiResponse<String> sendVerificationEmailPasswordReset(@PathVariable String email) throws MessagingException {
+    ApiResponse<String> sendVerificationEmailPasswordReset(@PathVariable String email) {
         return ApiResponse.<String>builder()
                 .data(authenticationService.sendVerificationEmailPasswordReset(email))
                 .build();
@@ -91,7 +90,7 @@ public class AuthenticationController {
     }
 
     @PostMapping("/account-activation/email/{email}")
-    ApiResponse<String> sendVerificationEmailAccountActivation(@PathVariable String email) throws MessagingException {
+    ApiResponse<String> sendVerificationEmailAccountActivation(@PathVariable String email) {
         return ApiResponse.<String>builder()
                 .data(authenticationService.sendVerificationEmailAccountActivation(email))
                 .build();
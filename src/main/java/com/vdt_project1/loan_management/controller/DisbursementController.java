@@ -1,18 +1,36 @@
 package com.vdt_project1.loan_management.controller;
 
+import com.vdt_project1.loan_management.configuration.ExportProperties;
 import com.vdt_project1.loan_management.dto.request.DisbursementRequest;
 import com.vdt_project1.loan_management.dto.response.ApiResponse;
+import com.vdt_project1.loan_management.dto.response.DisbursementBalanceResponse;
+import com.vdt_project1.loan_management.dto.response.DisbursementImportResponse;
 import com.vdt_project1.loan_management.dto.response.DisbursementResponse;
 import com.vdt_project1.loan_management.dto.response.DisbursementSummaryResponse;
+import com.vdt_project1.loan_management.service.DisbursementImportService;
+import com.vdt_project1.loan_management.service.DisbursementLedgerService;
 import com.vdt_project1.loan_management.service.DisbursementTransactionService;
+import com.vdt_project1.loan_management.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Slf4j
 @RestController
@@ -22,13 +40,19 @@ import org.springframework.web.bind.annotation.*;
 public class DisbursementController {
 
         DisbursementTransactionService disbursementTransactionService;
+        DisbursementImportService disbursementImportService;
+        DisbursementLedgerService disbursementLedgerService;
+        ExportService exportService;
+        ExportProperties exportProperties;
 
         @PostMapping
         @PreAuthorize("hasRole('ADMIN')")
         public ApiResponse<DisbursementResponse> createDisbursement(
-                        @Valid @RequestBody DisbursementRequest request) {
+                        @Valid @RequestBody DisbursementRequest request,
+                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
                 log.info("Creating disbursement for application ID: {}", request.getApplicationId());
-                DisbursementResponse response = disbursementTransactionService.createDisbursement(request);
+                DisbursementResponse response = disbursementTransactionService.createDisbursement(request,
+                                idempotencyKey);
                 return ApiResponse.<DisbursementResponse>builder()
                                 .code(1000)
                                 .message("Disbursement created successfully")
@@ -36,6 +60,63 @@ public class DisbursementController {
                                 .build();
         }
 
+        // Batch import of a CSV file or JSON array sent as the request body
+        @PostMapping(value = "/import", consumes = { "text/csv", MediaType.APPLICATION_JSON_VALUE })
+        @PreAuthorize("hasRole('ADMIN')")
+        public ApiResponse<DisbursementImportResponse> importDisbursements(
+                        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                        @RequestParam(defaultValue = "false") boolean dryRun,
+                        InputStream body) {
+                log.info("Importing disbursements from {} body, dry run: {}", contentType, dryRun);
+                DisbursementImportResponse response = disbursementImportService.importDisbursements(body,
+                                MediaType.APPLICATION_JSON.isCompatibleWith(contentType), dryRun);
+                return ApiResponse.<DisbursementImportResponse>builder()
+                                .code(1000)
+                                .message("Disbursement import processed")
+                                .data(response)
+                                .build();
+        }
+
+        // Same import for a file uploaded from a form, JSON is detected from the file name or type
+        @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+        @PreAuthorize("hasRole('ADMIN')")
+        public ApiResponse<DisbursementImportResponse> importDisbursementFile(
+                        @RequestParam("file") MultipartFile file,
+                        @RequestParam(defaultValue = "false") boolean dryRun) throws IOException {
+                log.info("Importing disbursements from file {}, dry run: {}", file.getOriginalFilename(), dryRun);
+                boolean json = MediaType.APPLICATION_JSON_VALUE.equals(file.getContentType())
+                                || (file.getOriginalFilename() != null
+                                                && file.getOriginalFilename().toLowerCase().endsWith(".json"));
+                try (InputStream input = file.getInputStream()) {
+                        DisbursementImportResponse response = disbursementImportService.importDisbursements(input,
+                                        json, dryRun);
+                        return ApiResponse.<DisbursementImportResponse>builder()
+                                        .code(1000)
+                                        .message("Disbursement import processed")
+                                        .data(response)
+                                        .build();
+                }
+        }
+
+        // Disbursement extract as CSV, streamed from a database cursor
+        @GetMapping("/export")
+        @PreAuthorize("hasRole('ADMIN')")
+        public WebAsyncTask<Void> exportDisbursements(
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                        HttpServletResponse response) {
+                log.info("Exporting disbursements");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                                "attachment; filename=\"disbursements-" + LocalDate.now() + ".csv\"");
+                response.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8).toString());
+                // Written asynchronously with its own timeout, other async requests keep the container default
+                return new WebAsyncTask<>(exportProperties.getTimeout(), () -> {
+                        exportService.exportDisbursements(from, to, response.getOutputStream());
+                        response.flushBuffer();
+                        return null;
+                });
+        }
+
         @GetMapping("/{transactionId}")
         @PreAuthorize("hasRole('ADMIN')")
         public ApiResponse<DisbursementResponse> getDisbursementById(@PathVariable Long transactionId) {
@@ -95,14 +176,41 @@ public class DisbursementController {
                                 .build();
         }
 
+        // Balance as of a point in time, defaults to now
+        @GetMapping("/application/{applicationId}/balance")
+        @PreAuthorize("hasRole('ADMIN') or (hasRole('USER') and @disbursementTransactionService.isUserOwnerOfApplication(#applicationId))")
+        public ApiResponse<DisbursementBalanceResponse> getDisbursementBalance(
+                        @PathVariable Long applicationId,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+                log.info("Fetching disbursement balance for application ID: {} at {}", applicationId, at);
+                DisbursementBalanceResponse response = disbursementLedgerService.getBalanceAt(applicationId, at);
+                return ApiResponse.<DisbursementBalanceResponse>builder()
+                                .code(1000)
+                                .data(response)
+                                .build();
+        }
+
+        @PostMapping("/{transactionId}/reversal")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ApiResponse<DisbursementResponse> reverseDisbursement(@PathVariable Long transactionId) {
+                log.info("Reversing disbursement with ID: {}", transactionId);
+                DisbursementResponse response = disbursementTransactionService.reverseDisbursement(transactionId);
+                return ApiResponse.<DisbursementResponse>builder()
+                                .code(1000)
+                                .message("Disbursement reversed successfully")
+                                .data(response)
+                                .build();
+        }
+
+        // Kept for existing clients, the ledger is append-only so this appends a reversal entry
         @DeleteMapping("/{transactionId}")
         @PreAuthorize("hasRole('ADMIN')")
         public ApiResponse<Void> deleteDisbursement(@PathVariable Long transactionId) {
                 log.info("Deleting disbursement with ID: {}", transactionId);
-                disbursementTransactionService.deleteDisbursement(transactionId);
+                disbursementTransactionService.reverseDisbursement(transactionId);
                 return ApiResponse.<Void>builder()
                                 .code(1000)
-                                .message("Disbursement deleted successfully")
+                                .message("Disbursement reversed successfully")
                                 .data(null)
                                 .build();
         }
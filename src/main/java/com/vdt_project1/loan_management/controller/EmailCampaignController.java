@@ -0,0 +1,48 @@
+package com.vdt_project1.loan_management.controller;
+
+import com.vdt_project1.loan_management.dto.request.EmailCampaignRequest;
+import com.vdt_project1.loan_management.dto.response.ApiResponse;
+import com.vdt_project1.loan_management.dto.response.EmailCampaignResponse;
+import com.vdt_project1.loan_management.service.EmailCampaignService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("email-campaigns")
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class EmailCampaignController {
+        EmailCampaignService emailCampaignService;
+
+        @PostMapping
+        @PreAuthorize("hasRole('ADMIN')")
+        public ApiResponse<EmailCampaignResponse> startCampaign(@Valid @RequestBody EmailCampaignRequest request) {
+                log.info("Starting email campaign with template: {}", request.getTemplateName());
+                return ApiResponse.<EmailCampaignResponse>builder()
+                                .data(emailCampaignService.startCampaign(request))
+                                .build();
+        }
+
+        @GetMapping
+        @PreAuthorize("hasRole('ADMIN')")
+        public ApiResponse<Page<EmailCampaignResponse>> getAllCampaigns(Pageable pageable) {
+                return ApiResponse.<Page<EmailCampaignResponse>>builder()
+                                .data(emailCampaignService.getAllCampaigns(pageable))
+                                .build();
+        }
+
+        @GetMapping("/{id}")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ApiResponse<EmailCampaignResponse> getCampaign(@PathVariable Long id) {
+                return ApiResponse.<EmailCampaignResponse>builder()
+                                .data(emailCampaignService.getCampaign(id))
+                                .build();
+        }
+}
@@ -2,7 +2,6 @@ package com.vdt_project1.loan_management.controller;
 
 import com.vdt_project1.loan_management.dto.response.ApiResponse;
 import com.vdt_project1.loan_management.service.EmailService;
-import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,7 +18,7 @@ public class EmailController {
      EmailService emailService;
 
     @PostMapping("/send")
-    public ApiResponse<String> sendEmail() throws MessagingException {
+    public ApiResponse<String> sendEmail() {
         emailService.sendHtmlTemplateEmail(
                 "anhnguyenthe29112004@gmail.com",
                 "Xác thực tài khoản - LoanConv",
@@ -27,7 +26,7 @@ public class EmailController {
                 "82c0ddd1-c5f2-49d8-95cc-ca08f6e55bee"
         );
         return ApiResponse.<String>builder()
-                .data("Email sent successfully")
+                .data("Email queued successfully")
                 .build();
     }
 }
@@ -1,19 +1,34 @@
 package com.vdt_project1.loan_management.controller;
 
+import com.vdt_project1.loan_management.configuration.ExportProperties;
 import com.vdt_project1.loan_management.dto.request.LoanApplicationRequest;
+import com.vdt_project1.loan_management.dto.request.LoanApplicationSearchRequest;
+import com.vdt_project1.loan_management.dto.response.AmortizationScheduleResponse;
 import com.vdt_project1.loan_management.dto.response.ApiResponse;
+import com.vdt_project1.loan_management.dto.response.CursorPageResponse;
 import com.vdt_project1.loan_management.dto.response.LoanApplicationResponse;
+import com.vdt_project1.loan_management.enums.AmortizationMethod;
 import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.service.AmortizationService;
+import com.vdt_project1.loan_management.service.ExportService;
 import com.vdt_project1.loan_management.service.LoanApplicationService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Slf4j
@@ -23,6 +38,9 @@ import java.util.Map;
 @FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
 public class LoanApplicationController {
         LoanApplicationService loanApplicationService;
+        ExportService exportService;
+        ExportProperties exportProperties;
+        AmortizationService amortizationService;
 
         @PostMapping
         @PreAuthorize("hasAuthority('POST_LOAN_APPLICATIONS_CREATE') or hasRole('ADMIN')")
@@ -64,6 +82,75 @@ public class LoanApplicationController {
                                 .build();
         }
 
+        // e.g. /search?status=APPROVED&productId=3&minAmount=10000000&createdFrom=2025-01-01T00:00:00&sort=requestedAmount,desc
+        @GetMapping("/search")
+        @PreAuthorize("hasAuthority('GET_LOAN_APPLICATIONS_ALL') or hasRole('ADMIN')")
+        public ApiResponse<Page<LoanApplicationResponse>> searchLoanApplications(
+                        @ModelAttribute LoanApplicationSearchRequest request, Pageable pageable) {
+                log.info("Searching loan applications");
+                return ApiResponse.<Page<LoanApplicationResponse>>builder()
+                                .data(loanApplicationService.searchLoanApplications(request, pageable))
+                                .build();
+        }
+
+        // Free-text search over personal info and the applicant's name, email and phone
+        @GetMapping("/full-text")
+        @PreAuthorize("hasAuthority('GET_LOAN_APPLICATIONS_ALL') or hasRole('ADMIN')")
+        public ApiResponse<Page<LoanApplicationResponse>> fullTextSearchLoanApplications(@RequestParam String q,
+                        Pageable pageable) {
+                log.info("Full-text searching loan applications");
+                return ApiResponse.<Page<LoanApplicationResponse>>builder()
+                                .data(loanApplicationService.fullTextSearchLoanApplications(q, pageable))
+                                .build();
+        }
+
+        // Full loan book extract as CSV, streamed from a database cursor
+        @GetMapping("/export")
+        @PreAuthorize("hasRole('ADMIN')")
+        public WebAsyncTask<Void> exportLoanApplications(
+                        @RequestParam(required = false) LoanApplicationStatus status,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+                        HttpServletResponse response) {
+                log.info("Exporting loan applications");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                                "attachment; filename=\"loan-applications-" + LocalDate.now() + ".csv\"");
+                response.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8).toString());
+                // Written asynchronously with its own timeout, other async requests keep the container default
+                return new WebAsyncTask<>(exportProperties.getTimeout(), () -> {
+                        exportService.exportLoanApplications(status, createdFrom, createdTo,
+                                        response.getOutputStream());
+                        response.flushBuffer();
+                        return null;
+                });
+        }
+
+        // Cursor-based listing: cost does not grow with depth, and the total is only counted on request
+        @GetMapping("/scroll")
+        @PreAuthorize("hasAuthority('GET_LOAN_APPLICATIONS_ALL') or hasRole('ADMIN')")
+        public ApiResponse<CursorPageResponse<LoanApplicationResponse>> scrollLoanApplications(
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "20") int size,
+                        @RequestParam(defaultValue = "false") boolean includeTotal) {
+                log.info("Scrolling loan applications");
+                return ApiResponse.<CursorPageResponse<LoanApplicationResponse>>builder()
+                                .data(loanApplicationService.scrollLoanApplications(cursor, size, includeTotal))
+                                .build();
+        }
+
+        @GetMapping("/user/scroll")
+        @PreAuthorize("hasAuthority('GET_LOAN_APPLICATIONS_CURRENT_USER_ALL') or hasRole('ADMIN')")
+        public ApiResponse<CursorPageResponse<LoanApplicationResponse>> scrollMyLoanApplications(
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "20") int size,
+                        @RequestParam(defaultValue = "false") boolean includeTotal) {
+                log.info("Scrolling loan applications for the current user");
+                return ApiResponse.<CursorPageResponse<LoanApplicationResponse>>builder()
+                                .data(loanApplicationService.scrollLoanApplicationsOfAUser(cursor, size,
+                                                includeTotal))
+                                .build();
+        }
+
         @GetMapping("/{id}")
         @PreAuthorize("hasAuthority('GET_LOAN_APPLICATIONS_BY_ID') or hasRole('ADMIN')")
         public ApiResponse<LoanApplicationResponse> getLoanApplicationById(@PathVariable Long id) {
@@ -74,6 +161,21 @@ public class LoanApplicationController {
                                 .build();
         }
 
+        // Repayment schedule for the requested amount and term at the product rate
+        @GetMapping("/{id}/amortization")
+        @PreAuthorize("hasAuthority('GET_LOAN_APPLICATIONS_BY_ID') or hasRole('ADMIN')")
+        public ApiResponse<AmortizationScheduleResponse> getAmortizationSchedule(
+                        @PathVariable Long id,
+                        @RequestParam(required = false) AmortizationMethod method,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate firstDueDate) {
+                log.info("Computing {} amortization schedule for loan application ID: {}", method, id);
+                AmortizationScheduleResponse response = amortizationService.getApplicationSchedule(id, method,
+                                firstDueDate);
+                return ApiResponse.<AmortizationScheduleResponse>builder()
+                                .data(response)
+                                .build();
+        }
+
         @PatchMapping("/{id}")
         @PreAuthorize("hasAuthority('PATCH_LOAN_APPLICATIONS_UPDATE_BY_ID') or hasRole('ADMIN')")
         public ApiResponse<LoanApplicationResponse> updateLoanApplication(@PathVariable Long id,
@@ -1,9 +1,12 @@
 package com.vdt_project1.loan_management.controller;
 
 import com.vdt_project1.loan_management.dto.request.LoanProductRequest;
+import com.vdt_project1.loan_management.dto.response.AmortizationQuoteResponse;
 import com.vdt_project1.loan_management.dto.response.ApiResponse;
 import com.vdt_project1.loan_management.dto.response.LoanProductResponse;
+import com.vdt_project1.loan_management.enums.AmortizationMethod;
 import com.vdt_project1.loan_management.enums.LoanProductStatus;
+import com.vdt_project1.loan_management.service.AmortizationService;
 import com.vdt_project1.loan_management.service.LoanProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +18,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequestMapping("loan-products")
@@ -23,6 +28,7 @@ import org.springframework.web.bind.annotation.*;
 public class LoanProductController {
 
         LoanProductService loanProductService;
+        AmortizationService amortizationService;
 
         @PostMapping
         @PreAuthorize("hasAuthority('POST_LOAN_PRODUCTS_CREATE') or hasRole('ADMIN')")
@@ -44,6 +50,18 @@ public class LoanProductController {
                                 .build();
         }
 
+        // What-if: the same loan priced by every active product
+        @GetMapping("/amortization")
+        public ApiResponse<List<AmortizationQuoteResponse>> quoteLoanProducts(
+                        @RequestParam long amount,
+                        @RequestParam int term,
+                        @RequestParam(required = false) AmortizationMethod method) {
+                log.info("Quoting loan products for amount {} over {} months", amount, term);
+                return ApiResponse.<List<AmortizationQuoteResponse>>builder()
+                                .data(amortizationService.quoteProducts(amount, term, method))
+                                .build();
+        }
+
         @GetMapping("/{id}")
         public ApiResponse<LoanProductResponse> getLoanProductById(@PathVariable Long id) {
                 log.info("Fetching loan product with ID: {}", id);
@@ -1,7 +1,11 @@
 package com.vdt_project1.loan_management.controller;
 
+import com.vdt_project1.loan_management.dto.request.TimeSeriesReportRequest;
 import com.vdt_project1.loan_management.dto.response.*;
+import com.vdt_project1.loan_management.enums.ReportGranularity;
 import com.vdt_project1.loan_management.service.LoanApplicationService;
+import com.vdt_project1.loan_management.service.ReportRollupService;
+import com.vdt_project1.loan_management.service.TimeSeriesReportService;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
@@ -10,7 +14,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -21,6 +24,8 @@ import java.util.List;
 public class ReportsController {
 
         LoanApplicationService loanApplicationService;
+        ReportRollupService reportRollupService;
+        TimeSeriesReportService timeSeriesReportService;
 
         /**
          * Thống kê số lượng hồ sơ theo trạng thái
@@ -78,16 +83,14 @@ public class ReportsController {
         @PreAuthorize("hasRole('ADMIN')")
         public ApiResponse<List<ApprovedAmountByTimeResponse>> getApprovedAmountByTime(
                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                        @RequestParam(required = false) ReportGranularity granularity,
+                        @RequestParam(required = false) String timeZone) {
 
                 log.info("Fetching approved amount statistics from {} to {}", startDate, endDate);
 
-                // Convert LocalDate to LocalDateTime for service method
-                LocalDateTime startDateTime = startDate.atStartOfDay();
-                LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-
                 List<ApprovedAmountByTimeResponse> statistics = loanApplicationService
-                                .getApprovedAmountByTime(startDateTime, endDateTime);
+                                .getApprovedAmountByTime(startDate, endDate, granularity, timeZone);
 
                 return ApiResponse.<List<ApprovedAmountByTimeResponse>>builder()
                                 .code(1000)
@@ -104,16 +107,14 @@ public class ReportsController {
         @PreAuthorize("hasRole('ADMIN')")
         public ApiResponse<List<DisbursedAmountByTimeResponse>> getDisbursedAmountByTime(
                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                        @RequestParam(required = false) ReportGranularity granularity,
+                        @RequestParam(required = false) String timeZone) {
 
                 log.info("Fetching disbursed amount statistics from {} to {}", startDate, endDate);
 
-                // Convert LocalDate to LocalDateTime for service method
-                LocalDateTime startDateTime = startDate.atStartOfDay();
-                LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-
                 List<DisbursedAmountByTimeResponse> statistics = loanApplicationService
-                                .getDisbursedAmountByTime(startDateTime, endDateTime);
+                                .getDisbursedAmountByTime(startDate, endDate, granularity, timeZone);
 
                 return ApiResponse.<List<DisbursedAmountByTimeResponse>>builder()
                                 .code(1000)
@@ -122,6 +123,26 @@ public class ReportsController {
                                 .build();
         }
 
+        /**
+         * Báo cáo chuỗi thời gian theo ngày/tuần/tháng/quý, có thể tách theo gói vay
+         * hoặc trạng thái. Các kỳ không có dữ liệu được trả về với giá trị 0
+         * Phù hợp để vẽ Line chart nhiều đường
+         */
+        @GetMapping("/time-series")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ApiResponse<TimeSeriesReportResponse> getTimeSeries(@ModelAttribute TimeSeriesReportRequest request) {
+                log.info("Fetching {} time series by {} from {} to {}", request.getMetric(),
+                                request.getGranularity(), request.getStartDate(), request.getEndDate());
+
+                TimeSeriesReportResponse report = timeSeriesReportService.getTimeSeries(request);
+
+                return ApiResponse.<TimeSeriesReportResponse>builder()
+                                .code(1000)
+                                .message("Time series report retrieved successfully")
+                                .data(report)
+                                .build();
+        }
+
         /**
          * Lấy tổng quan báo cáo (Dashboard summary)
          */
@@ -130,25 +151,7 @@ public class ReportsController {
         public ApiResponse<DashboardSummaryResponse> getDashboardSummary() {
                 log.info("Fetching dashboard summary");
 
-                // Get approval ratio
-                ApprovalRatioResponse approvalRatio = loanApplicationService.getApprovalRatio();
-
-                // Get statistics by status
-                List<StatusStatisticsResponse> statusStats = loanApplicationService.getApplicationStatisticsByStatus();
-
-                // Calculate total applications
-                Long totalApplications = statusStats.stream()
-                                .mapToLong(StatusStatisticsResponse::getCount)
-                                .sum();
-
-                DashboardSummaryResponse summary = DashboardSummaryResponse.builder()
-                                .totalApplications(totalApplications)
-                                .approvedCount(approvalRatio.getApprovedCount())
-                                .rejectedCount(approvalRatio.getRejectedCount())
-                                .approvalRate(approvalRatio.getApprovalRate())
-                                .rejectionRate(approvalRatio.getRejectionRate())
-                                .statusBreakdown(statusStats)
-                                .build();
+                DashboardSummaryResponse summary = loanApplicationService.getDashboardSummary();
 
                 return ApiResponse.<DashboardSummaryResponse>builder()
                                 .code(1000)
@@ -156,4 +159,18 @@ public class ReportsController {
                                 .data(summary)
                                 .build();
         }
+
+        /**
+         * Tính lại các bảng tổng hợp báo cáo từ dữ liệu gốc
+         */
+        @PostMapping("/rollups/rebuild")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ApiResponse<Void> rebuildRollups() {
+                log.info("Rebuilding reporting rollups");
+                reportRollupService.rebuild();
+                return ApiResponse.<Void>builder()
+                                .code(1000)
+                                .message("Reporting rollups rebuilt successfully")
+                                .build();
+        }
 }
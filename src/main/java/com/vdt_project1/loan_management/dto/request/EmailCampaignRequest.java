@@ -0,0 +1,26 @@
+package com.vdt_project1.loan_management.dto.request;
+
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EmailCampaignRequest {
+
+    @NotBlank(message = "Template name is required")
+    String templateName; // application-result-template or disburse-template
+
+    // Recipients: the owners of these applications, or of every application in the given status
+    List<Long> applicationIds;
+    LoanApplicationStatus status;
+
+    String subject; // Optional, a per-application subject is used when empty
+    String notes;
+}
@@ -0,0 +1,37 @@
+package com.vdt_project1.loan_management.dto.request;
+
+import com.vdt_project1.loan_management.exception.AppException;
+import com.vdt_project1.loan_management.exception.ErrorCode;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Position in a listing ordered by (created_at DESC NULLS FIRST, id DESC), sent to clients as an opaque string.
+// A row without a created_at is encoded with an empty date.
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class KeysetCursor {
+    LocalDateTime createdAt;
+    Long id;
+
+    public String encode() {
+        String raw = (createdAt == null ? "" : createdAt.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String date = raw.substring(0, separator);
+            return new KeysetCursor(date.isEmpty() ? null : LocalDateTime.parse(date),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+}
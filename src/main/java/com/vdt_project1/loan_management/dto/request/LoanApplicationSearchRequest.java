@@ -0,0 +1,33 @@
+package com.vdt_project1.loan_management.dto.request;
+
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Every criterion is optional; the ones present are combined with AND
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LoanApplicationSearchRequest {
+    List<LoanApplicationStatus> status;
+    Long productId;
+    Long userId;
+
+    Long minAmount;
+    Long maxAmount;
+
+    Integer minTerm;
+    Integer maxTerm;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    LocalDateTime createdTo;
+}
@@ -0,0 +1,37 @@
+package com.vdt_project1.loan_management.dto.request;
+
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.enums.ReportDimension;
+import com.vdt_project1.loan_management.enums.ReportGranularity;
+import com.vdt_project1.loan_management.enums.ReportMetric;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TimeSeriesReportRequest {
+    ReportMetric metric;
+    ReportGranularity granularity; // DAY when omitted
+    ReportDimension dimension; // NONE when omitted
+
+    // Both inclusive, interpreted in timeZone
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    LocalDate startDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    LocalDate endDate;
+
+    // IANA zone id such as Asia/Ho_Chi_Minh, defaults to app.reports.time-zone
+    String timeZone;
+
+    // Optional filters
+    List<Long> productId;
+    List<LoanApplicationStatus> status;
+}
@@ -0,0 +1,21 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AmortizationInstallmentResponse {
+
+    Integer period;
+    LocalDate dueDate;
+    Long payment;
+    Long principal;
+    Long interest;
+    Long remainingBalance;
+}
@@ -0,0 +1,25 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import com.vdt_project1.loan_management.enums.AmortizationMethod;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AmortizationQuoteResponse {
+
+    Long productId;
+    String productName;
+    Double annualInterestRate;
+    AmortizationMethod method;
+    Long principal;
+    Integer termMonths;
+    Boolean eligible; // amount and term within the product limits
+    Long firstPayment;
+    Long maxPayment;
+    Long totalPayment;
+    Long totalInterest;
+}
@@ -0,0 +1,29 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import com.vdt_project1.loan_management.enums.AmortizationMethod;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AmortizationScheduleResponse {
+
+    Long applicationId;
+    Long productId;
+    String productName;
+    AmortizationMethod method;
+    Long principal;
+    Double annualInterestRate;
+    Integer termMonths;
+    LocalDate firstDueDate;
+    Long firstPayment;
+    Long totalPayment;
+    Long totalInterest;
+    List<AmortizationInstallmentResponse> installments;
+}
@@ -0,0 +1,17 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import com.vdt_project1.loan_management.enums.AccountStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CurrentUserDto {
+    Long id;
+    String email;
+    String roleName;
+    AccountStatus accountStatus;
+}
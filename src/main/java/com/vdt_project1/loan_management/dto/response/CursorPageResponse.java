@@ -0,0 +1,21 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResponse<T> {
+    List<T> content;
+    Integer size;
+    Boolean hasNext;
+    String nextCursor; // Pass back as ?cursor= to get the next page, null on the last page
+    Long totalElements; // Only when requested with includeTotal=true
+}
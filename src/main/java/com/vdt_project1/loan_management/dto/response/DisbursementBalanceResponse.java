@@ -0,0 +1,21 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DisbursementBalanceResponse {
+
+    Long applicationId;
+    LocalDateTime at;
+    Long balance;
+    Long disbursementCount;
+    LocalDateTime snapshotAsOf; // null when no snapshot was old enough
+    Long tailEntries; // ledger entries read on top of the snapshot
+}
@@ -0,0 +1,23 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DisbursementImportResponse {
+    Boolean dryRun;
+    Integer totalRows;
+    Integer importedRows;
+    Integer skippedRows;
+    Integer rejectedRows;
+    Long importedAmount;
+    Integer updatedApplications;
+    Long durationMs;
+    List<DisbursementImportRowResponse> rows;
+}
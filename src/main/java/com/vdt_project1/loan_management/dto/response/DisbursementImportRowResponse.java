@@ -0,0 +1,21 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import com.vdt_project1.loan_management.enums.DisbursementImportRowStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DisbursementImportRowResponse {
+    Integer rowNumber; // 1-based, the CSV header is not counted
+    Long applicationId;
+    Long amount;
+    DisbursementImportRowStatus status;
+
+    // Set for rejected rows
+    Integer code;
+    String message;
+}
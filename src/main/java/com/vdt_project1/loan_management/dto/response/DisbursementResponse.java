@@ -17,6 +17,7 @@ public class DisbursementResponse {
     Long amount;
     LocalDateTime transactionDate;
     String notes;
+    Long reversalOf; // set on reversal entries
     LocalDateTime createdAt;
 
     // Basic loan application info to avoid circular references
@@ -0,0 +1,30 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EmailCampaignResponse {
+    Long id;
+    String templateName;
+    String subject;
+    String status;
+    Integer totalRecipients;
+    Integer queuedCount;
+    Integer failedCount;
+
+    // Delivery progress of the queued emails, read from the outbox
+    Long sentCount;
+    Long pendingCount;
+    Long deadCount;
+
+    String lastError;
+    LocalDateTime createdAt;
+    LocalDateTime completedAt;
+}
@@ -0,0 +1,25 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import com.vdt_project1.loan_management.enums.ReportDimension;
+import com.vdt_project1.loan_management.enums.ReportGranularity;
+import com.vdt_project1.loan_management.enums.ReportMetric;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TimeSeriesReportResponse {
+    ReportMetric metric;
+    ReportGranularity granularity;
+    ReportDimension dimension;
+    String timeZone;
+    LocalDate startDate;
+    LocalDate endDate;
+    List<TimeSeriesResponse> series;
+}
@@ -0,0 +1,19 @@
+package com.vdt_project1.loan_management.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TimeSeriesResponse {
+    String key; // product id or status, "ALL" without a dimension
+    String label;
+    Long totalAmount;
+    Long totalCount;
+    List<TimeSeriesPointResponse> points; // one point per period, periods without data are zero
+}
@@ -0,0 +1,45 @@
+package com.vdt_project1.loan_management.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Disbursed balance of one application over the ledger entries with id <= last_transaction_id
+// and transaction_date <= as_of, taken periodically by DisbursementLedgerService
+@Getter
+@Setter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "disbursement_balance_snapshots", indexes = @Index(
+        name = "idx_disbursement_balance_snapshots_application_as_of", columnList = "application_id, as_of"))
+public class DisbursementBalanceSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    Long id;
+
+    @Column(name = "application_id", nullable = false)
+    Long applicationId;
+
+    @Column(name = "as_of", nullable = false)
+    LocalDateTime asOf;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    Long lastTransactionId;
+
+    @Column(name = "balance", nullable = false)
+    Long balance;
+
+    @Column(name = "disbursement_count", nullable = false)
+    Long disbursementCount;
+
+    @Column(name = "created_at", nullable = false)
+    LocalDateTime createdAt;
+}
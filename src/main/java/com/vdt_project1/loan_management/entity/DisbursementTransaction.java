@@ -3,9 +3,16 @@ package com.vdt_project1.loan_management.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Immutable;
 
 import java.time.LocalDateTime;
 
+/**
+ * Entry in the append-only disbursement ledger. Entries are never updated or
+ * deleted: a disbursement is cancelled by a reversal entry that carries the
+ * negated amount and points at the original through reversal_of, so balances
+ * are plain sums over the entries.
+ */
 @Getter
 @Setter
 @Builder
@@ -13,8 +20,17 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "disbursement_transactions")
+@Immutable
+@Table(name = "disbursement_transactions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_disbursement_transactions_idempotency_key", columnNames = "idempotency_key"),
+        @UniqueConstraint(name = "uk_disbursement_transactions_reversal_of", columnNames = "reversal_of")
+}, indexes = {
+        @Index(name = "idx_disbursement_transactions_application_date", columnList = "application_id, transaction_date"),
+        @Index(name = "idx_disbursement_transactions_application_id", columnList = "application_id, transaction_id"),
+        @Index(name = "idx_disbursement_transactions_created_at", columnList = "created_at")
+})
 public class DisbursementTransaction {
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,10 +52,22 @@ public class DisbursementTransaction {
     @Column(name = "created_at")
     LocalDateTime createdAt;
 
+    // Client-supplied key, a retried request with the same key returns the original transaction
+    @Column(name = "idempotency_key", length = MAX_IDEMPOTENCY_KEY_LENGTH)
+    String idempotencyKey;
+
+    // Set on reversal entries, at most one reversal per original entry
+    @Column(name = "reversal_of")
+    Long reversalOf;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "application_id", insertable = false, updatable = false)
     LoanApplication loanApplication;
 
+    public boolean isReversal() {
+        return reversalOf != null;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,60 @@
+package com.vdt_project1.loan_management.entity;
+
+import com.vdt_project1.loan_management.enums.EmailCampaignStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "email_campaigns")
+public class EmailCampaign {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "campaign_id")
+    Long id;
+
+    @Column(name = "template_name", nullable = false, length = 100)
+    String templateName;
+
+    @Column(name = "subject")
+    String subject;
+
+    @Column(name = "notes")
+    String notes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    EmailCampaignStatus status;
+
+    @Column(name = "total_recipients", nullable = false)
+    Integer totalRecipients;
+
+    // Emails rendered and written to the outbox
+    @Column(name = "queued_count", nullable = false)
+    Integer queuedCount;
+
+    // Recipients whose email could not be rendered
+    @Column(name = "failed_count", nullable = false)
+    Integer failedCount;
+
+    @Column(name = "last_error", length = 1000)
+    String lastError;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    LocalDateTime completedAt;
+
+    // Last progress report or heartbeat, an active campaign that stops reporting was interrupted by a restart
+    @Column(name = "updated_at")
+    LocalDateTime updatedAt;
+}
@@ -0,0 +1,69 @@
+package com.vdt_project1.loan_management.entity;
+
+import com.vdt_project1.loan_management.enums.EmailOutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_priority_next_attempt", columnList = "status, priority, next_attempt_at"),
+        @Index(name = "idx_email_outbox_campaign_id", columnList = "campaign_id")
+})
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    Long id;
+
+    @Column(name = "recipient", nullable = false)
+    String recipient;
+
+    @Column(name = "subject", nullable = false)
+    String subject;
+
+    @Column(name = "template_name", nullable = false, length = 100)
+    String templateName;
+
+    // Template variables serialized as JSON
+    @Column(name = "template_variables", columnDefinition = "TEXT")
+    String templateVariables;
+
+    // Already rendered body (campaign emails), the template is not rendered again when set
+    @Column(name = "html_body", columnDefinition = "TEXT")
+    String htmlBody;
+
+    @Column(name = "campaign_id")
+    Long campaignId;
+
+    // Lower is sent first, so transactional emails do not queue behind a campaign
+    @Column(name = "priority", nullable = false)
+    Integer priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    EmailOutboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    String lastError;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    LocalDateTime sentAt;
+}
@@ -13,7 +13,9 @@ import java.util.Date;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "invalidated_tokens")
+@Table(name = "invalidated_tokens", indexes = {
+        @Index(name = "idx_invalidated_tokens_expiration_time", columnList = "expiration_time")
+})
 public class InvalidatedToken {
     @Id
     String id;
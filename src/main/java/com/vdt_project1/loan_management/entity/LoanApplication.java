@@ -15,18 +15,34 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "loan_applications")
+// Everything LoanApplicationMapper.toResponse touches, loaded in the same statement as the applications
+@NamedEntityGraph(name = LoanApplication.DETAILS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "user", subgraph = "user-role"),
+                @NamedAttributeNode("loanProduct")
+        },
+        subgraphs = @NamedSubgraph(name = "user-role", attributeNodes = @NamedAttributeNode("role")))
+@Table(name = "loan_applications", indexes = {
+        @Index(name = "idx_loan_applications_created_at_id", columnList = "created_at, application_id"),
+        @Index(name = "idx_loan_applications_user_created_at_id", columnList = "user_id, created_at, application_id"),
+        // Admin search: status and product filters, usually with a created_at range or sort
+        @Index(name = "idx_loan_applications_status_created_at", columnList = "status, created_at"),
+        @Index(name = "idx_loan_applications_product_status_created_at", columnList = "product_id, status, created_at"),
+        @Index(name = "idx_loan_applications_status_amount", columnList = "status, requested_amount")
+})
 public class LoanApplication {
+    public static final String DETAILS_GRAPH = "LoanApplication.details";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "application_id")
     Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     LoanProduct loanProduct;
 
@@ -50,4 +66,13 @@ public class LoanApplication {
 
     @Column(name = "updated_at")
     LocalDateTime updatedAt;
+
+    // Running sum and count of disbursement transactions, changed only while the row is locked
+    // and reconciled against disbursement_transactions by DisbursementTotalsReconciler.
+    // Null for applications created before the columns existed until they are backfilled.
+    @Column(name = "disbursed_total")
+    Long disbursedTotal;
+
+    @Column(name = "disbursement_count")
+    Long disbursementCount;
 }
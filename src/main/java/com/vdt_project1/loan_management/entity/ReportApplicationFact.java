@@ -0,0 +1,42 @@
+package com.vdt_project1.loan_management.entity;
+
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// Fact row: loan applications created in one hour, per product and current status
+@Getter
+@Setter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "report_application_facts", uniqueConstraints = @UniqueConstraint(
+        name = "uk_report_application_facts_bucket", columnNames = { "bucket_start", "product_id", "status" }))
+public class ReportApplicationFact {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "fact_id")
+    Long id;
+
+    // Start of the hour in the application's time zone, the unique index leads with it for range scans
+    @Column(name = "bucket_start", nullable = false)
+    LocalDateTime bucketStart;
+
+    @Column(name = "product_id", nullable = false)
+    Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 30)
+    LoanApplicationStatus status;
+
+    @Column(name = "application_count", nullable = false)
+    Long applicationCount;
+
+    @Column(name = "requested_amount", nullable = false)
+    Long requestedAmount;
+}
@@ -0,0 +1,36 @@
+package com.vdt_project1.loan_management.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// Fact row: disbursement transactions in one hour, per product
+@Getter
+@Setter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "report_disbursement_facts", uniqueConstraints = @UniqueConstraint(
+        name = "uk_report_disbursement_facts_bucket", columnNames = { "bucket_start", "product_id" }))
+public class ReportDisbursementFact {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "fact_id")
+    Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    LocalDateTime bucketStart;
+
+    @Column(name = "product_id", nullable = false)
+    Long productId;
+
+    @Column(name = "disbursed_count", nullable = false)
+    Long disbursedCount;
+
+    @Column(name = "disbursed_amount", nullable = false)
+    Long disbursedAmount;
+}
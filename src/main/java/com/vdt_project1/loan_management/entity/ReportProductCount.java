@@ -0,0 +1,23 @@
+package com.vdt_project1.loan_management.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// Rollup row: number of loan applications for a loan product
+@Getter
+@Setter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "report_product_counts")
+public class ReportProductCount {
+    @Id
+    @Column(name = "product_id")
+    Long productId;
+
+    @Column(name = "application_count", nullable = false)
+    Long applicationCount;
+}
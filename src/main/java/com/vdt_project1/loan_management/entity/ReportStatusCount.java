@@ -0,0 +1,25 @@
+package com.vdt_project1.loan_management.entity;
+
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// Rollup row: number of loan applications currently in a status
+@Getter
+@Setter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "report_status_counts")
+public class ReportStatusCount {
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 30)
+    LoanApplicationStatus status;
+
+    @Column(name = "application_count", nullable = false)
+    Long applicationCount;
+}
@@ -0,0 +1,7 @@
+package com.vdt_project1.loan_management.enums;
+
+public enum AmortizationMethod {
+    ANNUITY, // equal payments, principal share grows over time
+    EQUAL_PRINCIPAL, // equal principal, interest on the falling balance
+    INTEREST_ONLY // interest every period, principal repaid with the last payment
+}
@@ -0,0 +1,8 @@
+package com.vdt_project1.loan_management.enums;
+
+public enum DisbursementImportRowStatus {
+    IMPORTED,
+    VALID, // dry run, the row would have been imported
+    SKIPPED, // already imported with the same idempotency key
+    REJECTED
+}
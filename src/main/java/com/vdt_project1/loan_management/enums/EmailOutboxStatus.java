@@ -0,0 +1,8 @@
+package com.vdt_project1.loan_management.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
@@ -0,0 +1,7 @@
+package com.vdt_project1.loan_management.enums;
+
+public enum ReportDimension {
+    NONE,
+    PRODUCT,
+    STATUS // application metrics only
+}
@@ -0,0 +1,8 @@
+package com.vdt_project1.loan_management.enums;
+
+public enum ReportGranularity {
+    DAY,
+    WEEK, // ISO weeks, starting on Monday
+    MONTH,
+    QUARTER
+}
@@ -0,0 +1,7 @@
+package com.vdt_project1.loan_management.enums;
+
+public enum ReportMetric {
+    APPLICATIONS, // applications by creation time, count and requested amount
+    APPROVED_AMOUNT, // approved or (partially) disbursed applications by creation time
+    DISBURSED_AMOUNT // disbursement transactions by transaction time
+}
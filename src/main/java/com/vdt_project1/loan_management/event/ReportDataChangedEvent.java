@@ -0,0 +1,9 @@
+package com.vdt_project1.loan_management.event;
+
+/**
+ * Published when a loan application or disbursement changes in a way that
+ * affects report figures. Listeners that react after commit see only changes
+ * that were actually persisted.
+ */
+public record ReportDataChangedEvent(Long applicationId, String reason) {
+}
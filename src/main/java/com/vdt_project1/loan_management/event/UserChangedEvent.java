@@ -0,0 +1,9 @@
+package com.vdt_project1.loan_management.event;
+
+/**
+ * Published when a user's profile, role or status changes. Cached copies of the
+ * user are dropped after commit, so a concurrent read cannot cache the old row
+ * again between the eviction and the commit.
+ */
+public record UserChangedEvent(Long userId, String email) {
+}
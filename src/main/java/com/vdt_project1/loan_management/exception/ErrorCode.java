@@ -8,6 +8,7 @@ import org.springframework.http.HttpStatusCode;
 public enum ErrorCode {
         UNCATEGORIZED_ERROR(9999, "An uncategorized error occurred", HttpStatusCode.valueOf(500)),
         SERVER_ERROR(9998, "An internal server error occurred", HttpStatusCode.valueOf(500)),
+        SERVICE_BUSY(9997, "Service is busy, please try again later", HttpStatusCode.valueOf(503)),
         INVALID_MESSAGE_KEY(1111, "Invalid message key", HttpStatusCode.valueOf(400)),
         USER_EXISTS(1001, "User already exists", HttpStatusCode.valueOf(400)),
         INVALID_EMAIL(1002, "Email must be in a valid format", HttpStatusCode.valueOf(400)),
@@ -40,6 +41,8 @@ public enum ErrorCode {
                         HttpStatusCode.valueOf(400)),
         INVALID_LOAN_PRODUCT_MAX_TERM(2011, "Maximum term must be at least {min}",
                         HttpStatusCode.valueOf(400)),
+        INVALID_AMORTIZATION_INPUT(2012, "Amount must be between 1 and 10^15, term between 1 and 600 months",
+                        HttpStatusCode.valueOf(400)),
         LOAN_APPLICATION_NOT_FOUND(3001, "Loan application not found",
                         HttpStatusCode.valueOf(404)),
         INVALID_LOAN_APPLICATION_AMOUNT(3002, "Requested amount must be between {min} and {max}",
@@ -50,6 +53,12 @@ public enum ErrorCode {
                         HttpStatusCode.valueOf(400)),
         LOAN_APPLICATION_ALREADY_REJECTED(3005, "Loan application has already been rejected",
                         HttpStatusCode.valueOf(400)),
+        INVALID_CURSOR(3006, "Invalid pagination cursor", HttpStatusCode.valueOf(400)),
+        INVALID_SEARCH_SORT(3007, "Unsupported sort property", HttpStatusCode.valueOf(400)),
+        INVALID_REPORT_RANGE(3008, "Report date range is invalid or has too many periods",
+                        HttpStatusCode.valueOf(400)),
+        INVALID_TIME_ZONE(3009, "Unknown time zone", HttpStatusCode.valueOf(400)),
+        INVALID_REPORT_QUERY(3010, "Unsupported report metric or dimension", HttpStatusCode.valueOf(400)),
         NOTIFICATION_NOT_FOUND(4001, "Notification not found", HttpStatusCode.valueOf(404)),
         DOCUMENT_NOT_FOUND(5001, "Document not found", HttpStatusCode.valueOf(404)),
         DISBURSEMENT_NOT_FOUND(7001, "Disbursement transaction not found", HttpStatusCode.valueOf(404)),
@@ -57,13 +66,26 @@ public enum ErrorCode {
                         HttpStatusCode.valueOf(400)),
         DISBURSEMENT_AMOUNT_EXCEEDS_APPROVED(7003, "Total disbursement amount cannot exceed approved loan amount",
                         HttpStatusCode.valueOf(400)),
+        IDEMPOTENCY_KEY_REUSED(7004, "Idempotency key was already used for a different disbursement",
+                        HttpStatusCode.valueOf(409)),
+        INVALID_IDEMPOTENCY_KEY(7005, "Idempotency key must be at most 100 characters",
+                        HttpStatusCode.valueOf(400)),
+        INVALID_IMPORT_FILE(7006, "Import file must be a CSV file with a header row or a JSON array",
+                        HttpStatusCode.valueOf(400)),
+        IMPORT_TOO_MANY_ROWS(7007, "Import file has too many rows", HttpStatusCode.valueOf(400)),
+        INVALID_IMPORT_ROW(7008, "Invalid disbursement row", HttpStatusCode.valueOf(400)),
+        DISBURSEMENT_NOT_REVERSIBLE(7009, "A reversal entry cannot be reversed", HttpStatusCode.valueOf(400)),
+        DISBURSEMENT_ALREADY_REVERSED(7010, "Disbursement has already been reversed", HttpStatusCode.valueOf(409)),
         VERIFICATION_TOKEN_NOT_FOUND(6001, "Verification token not found", HttpStatusCode.valueOf(404)),
         VERIFICATION_TOKEN_ALREADY_VERIFIED(6002, "Verification token has already been verified",
                         HttpStatusCode.valueOf(400)),
         INVALID_VERIFICATION_TOKEN_TYPE(6003, "Invalid verification token type", HttpStatusCode.valueOf(400)),
         VERIFICATION_TOKEN_EXPIRED(6004, "Verification token has expired", HttpStatusCode.valueOf(400)),
         CONFIG_NOT_FOUND(8001, "System configuration not found", HttpStatusCode.valueOf(404)),
-        CONFIG_KEY_EXISTS(8002, "Configuration key already exists", HttpStatusCode.valueOf(400));
+        CONFIG_KEY_EXISTS(8002, "Configuration key already exists", HttpStatusCode.valueOf(400)),
+        EMAIL_CAMPAIGN_NOT_FOUND(9001, "Email campaign not found", HttpStatusCode.valueOf(404)),
+        INVALID_EMAIL_TEMPLATE(9002, "Email template is not supported for campaigns", HttpStatusCode.valueOf(400)),
+        EMAIL_CAMPAIGN_NO_RECIPIENTS(9003, "Email campaign has no recipients", HttpStatusCode.valueOf(400));
 
         private int code;
         private String message;
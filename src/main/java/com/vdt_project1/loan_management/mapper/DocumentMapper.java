@@ -9,8 +9,14 @@ import org.mapstruct.*;
 
 @Mapper(componentModel = "spring")
 public interface DocumentMapper {
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "loanApplication", ignore = true)
+    @Mapping(target = "uploadedAt", ignore = true)
     Document toEntity(DocumentRequest documentRequest);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "loanApplication", ignore = true)
+    @Mapping(target = "uploadedAt", ignore = true)
     void updateEntityFromRequest(DocumentRequest documentRequest, @MappingTarget Document document);
 
     // Custom mapping logic to handle the conversion of Document to DocumentResponse
@@ -7,15 +7,30 @@ import com.vdt_project1.loan_management.dto.response.LoanProductResponse;
 import com.vdt_project1.loan_management.entity.LoanApplication;
 import com.vdt_project1.loan_management.entity.LoanProduct;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.factory.Mappers;
 
 @Mapper(componentModel = "spring")
 public interface LoanApplicationMapper {
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "loanProduct", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "disbursedTotal", ignore = true)
+    @Mapping(target = "disbursementCount", ignore = true)
     LoanApplication toEntity(LoanApplicationRequest request);
 
     LoanApplicationResponse toResponse(LoanApplication entity);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "loanProduct", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "disbursedTotal", ignore = true)
+    @Mapping(target = "disbursementCount", ignore = true)
     void updateEntityFromRequest(LoanApplicationRequest request, @MappingTarget LoanApplication entity);
 }
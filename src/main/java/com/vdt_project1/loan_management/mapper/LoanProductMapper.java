@@ -13,9 +13,15 @@ public interface LoanProductMapper {
 
     LoanProductMapper INSTANCE = Mappers.getMapper(LoanProductMapper.class);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     LoanProduct toEntity(LoanProductRequest request);
 
     LoanProductResponse toResponse(LoanProduct entity);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     void updateEntityFromRequest(LoanProductRequest request, @MappingTarget LoanProduct entity);
 }
@@ -4,6 +4,7 @@ import com.vdt_project1.loan_management.dto.request.NotificationRequest;
 import com.vdt_project1.loan_management.dto.response.NotificationResponse;
 import com.vdt_project1.loan_management.entity.Notification;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 
 @Mapper(componentModel = "spring")
@@ -14,8 +15,16 @@ public interface NotificationMapper {
 //
 //    void updateEntityFromRequest(LoanApplicationRequest request, @MappingTarget LoanApplication entity);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "loanApplication", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
     Notification toEntity(NotificationRequest notificationRequest);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "loanApplication", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
     void updateEntityFromRequest(NotificationRequest notificationRequest, @MappingTarget Notification notification);
 
     NotificationResponse toResponse(Notification notification);
@@ -16,6 +16,11 @@ import org.mapstruct.Named;
 @Mapper(componentModel = "spring")
 public interface UserMapper {
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "role", ignore = true)
+    @Mapping(target = "accountStatus", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     User toUser(UserCreationRequest userCreationRequest);
 
     @Mapping(target = "role", source = "user", qualifiedByName = "toRoleDto")
@@ -33,11 +38,19 @@ public interface UserMapper {
                 .build();
     }
 
+    @Mapping(target = "id", ignore = true)
     @Mapping(target = "email", ignore = true)
+    @Mapping(target = "role", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     void updateUser(@MappingTarget User user, UserUpdateUserRequest userUpdateUserRequest);
 
+    @Mapping(target = "id", ignore = true)
     @Mapping(target = "email", ignore = true)
     @Mapping(target = "password", ignore = true)
     @Mapping(target = "accountStatus", ignore = true)
+    @Mapping(target = "role", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     void updateProfile(@MappingTarget User user, UserUpdateUserRequest userUpdateUserRequest);
 }
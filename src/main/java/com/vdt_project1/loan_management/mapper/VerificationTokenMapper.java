@@ -16,8 +16,18 @@ import java.time.LocalDateTime;
 @Mapper(componentModel = "spring")
 public interface VerificationTokenMapper {
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "expiresAt", ignore = true)
+    @Mapping(target = "verified", ignore = true)
     VerificationToken toEntity(VerificationTokenRequest verificationTokenRequest);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "expiresAt", ignore = true)
+    @Mapping(target = "verified", ignore = true)
     void updateEntityFromRequest(VerificationTokenRequest verificationTokenRequest, @MappingTarget VerificationToken verificationToken);
 
     @Mapping(target = "user", source = "verificationToken", qualifiedByName = "toUserDto")
@@ -0,0 +1,20 @@
+package com.vdt_project1.loan_management.repository;
+
+import com.vdt_project1.loan_management.entity.DisbursementBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface DisbursementBalanceSnapshotRepository extends JpaRepository<DisbursementBalanceSnapshot, Long> {
+
+    // Latest snapshot usable for a balance at the given time
+    Optional<DisbursementBalanceSnapshot> findFirstByApplicationIdAndAsOfLessThanEqualOrderByAsOfDescIdDesc(
+            Long applicationId, LocalDateTime asOf);
+
+    @Query("SELECT MAX(s.createdAt) FROM DisbursementBalanceSnapshot s")
+    Optional<LocalDateTime> findLastSnapshotTime();
+}
@@ -3,40 +3,104 @@ package com.vdt_project1.loan_management.repository;
 import com.vdt_project1.loan_management.entity.DisbursementTransaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface DisbursementTransactionRepository extends JpaRepository<DisbursementTransaction, Long> {
 
-        List<DisbursementTransaction> findByApplicationIdOrderByTransactionDateDesc(Long applicationId);
+        @Override
+        @EntityGraph(attributePaths = { "loanApplication", "loanApplication.user", "loanApplication.loanProduct" })
+        Page<DisbursementTransaction> findAll(Pageable pageable);
 
+        // Most recent transactions shown in the disbursement summary
+        @EntityGraph(attributePaths = { "loanApplication", "loanApplication.user", "loanApplication.loanProduct" })
+        List<DisbursementTransaction> findTop10ByApplicationIdOrderByTransactionDateDesc(Long applicationId);
+
+        @EntityGraph(attributePaths = { "loanApplication", "loanApplication.user", "loanApplication.loanProduct" })
         Page<DisbursementTransaction> findByApplicationIdOrderByTransactionDateDesc(Long applicationId,
                         Pageable pageable);
 
         @Query("SELECT COALESCE(SUM(dt.amount), 0) FROM DisbursementTransaction dt WHERE dt.applicationId = :applicationId")
         Long getTotalDisbursedAmount(@Param("applicationId") Long applicationId);
 
-        @Query("SELECT COUNT(dt) FROM DisbursementTransaction dt WHERE dt.applicationId = :applicationId")
-        Long countByApplicationId(@Param("applicationId") Long applicationId);
+        @Query("SELECT dt.applicationId, SUM(dt.amount) FROM DisbursementTransaction dt " +
+                        "WHERE dt.applicationId IN :applicationIds GROUP BY dt.applicationId")
+        List<Object[]> getTotalDisbursedAmounts(@Param("applicationIds") List<Long> applicationIds);
+
+        // Most recent disbursement of each application, reversal entries excluded
+        @Query("SELECT dt FROM DisbursementTransaction dt WHERE dt.applicationId IN :applicationIds " +
+                        "AND dt.transactionId = (SELECT MAX(d.transactionId) FROM DisbursementTransaction d " +
+                        "WHERE d.applicationId = dt.applicationId AND d.reversalOf IS NULL)")
+        List<DisbursementTransaction> findLatestDisbursements(@Param("applicationIds") List<Long> applicationIds);
+
+        Optional<DisbursementTransaction> findByIdempotencyKey(String idempotencyKey);
+
+        // Rows: idempotency key, application id, amount
+        @Query("SELECT dt.idempotencyKey, dt.applicationId, dt.amount FROM DisbursementTransaction dt " +
+                        "WHERE dt.idempotencyKey IN :keys")
+        List<Object[]> findByIdempotencyKeyIn(@Param("keys") Collection<String> keys);
+
+        // Rows: application id, sum of amounts, net number of disbursements
+        @Query("SELECT dt.applicationId, SUM(dt.amount), SUM(CASE WHEN dt.reversalOf IS NULL THEN 1 ELSE -1 END) " +
+                        "FROM DisbursementTransaction dt " +
+                        "WHERE dt.applicationId IN :applicationIds GROUP BY dt.applicationId")
+        List<Object[]> getDisbursementTotals(@Param("applicationIds") Collection<Long> applicationIds);
+
+        // Disbursements that have not been reversed: reversal entries count as -1
+        @Query("SELECT COALESCE(SUM(CASE WHEN dt.reversalOf IS NULL THEN 1 ELSE -1 END), 0) " +
+                        "FROM DisbursementTransaction dt WHERE dt.applicationId = :applicationId")
+        Long getNetDisbursementCount(@Param("applicationId") Long applicationId);
+
+        boolean existsByReversalOf(Long reversalOf);
+
+        // Ledger tail after a balance snapshot, in two disjoint index range scans: entries dated
+        // after the snapshot, and entries written after it but dated at or before it.
+        // Rows: sum of amounts, net count, entries read
+        @Query("SELECT COALESCE(SUM(dt.amount), 0), " +
+                        "COALESCE(SUM(CASE WHEN dt.reversalOf IS NULL THEN 1 ELSE -1 END), 0), COUNT(dt) " +
+                        "FROM DisbursementTransaction dt WHERE dt.applicationId = :applicationId " +
+                        "AND dt.transactionDate > :from AND dt.transactionDate <= :to")
+        List<Object[]> sumDatedBetween(@Param("applicationId") Long applicationId,
+                        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+        @Query("SELECT COALESCE(SUM(dt.amount), 0), " +
+                        "COALESCE(SUM(CASE WHEN dt.reversalOf IS NULL THEN 1 ELSE -1 END), 0), COUNT(dt) " +
+                        "FROM DisbursementTransaction dt WHERE dt.applicationId = :applicationId " +
+                        "AND dt.transactionId > :afterId AND dt.transactionDate <= :asOf")
+        List<Object[]> sumWrittenAfter(@Param("applicationId") Long applicationId, @Param("afterId") Long afterId,
+                        @Param("asOf") LocalDateTime asOf);
+
+        @Query("SELECT COALESCE(MAX(dt.transactionId), 0) FROM DisbursementTransaction dt " +
+                        "WHERE dt.applicationId = :applicationId")
+        Long findLastTransactionId(@Param("applicationId") Long applicationId);
+
+        @Query("SELECT DISTINCT dt.applicationId FROM DisbursementTransaction dt WHERE dt.createdAt >= :since")
+        List<Long> findApplicationIdsWrittenSince(@Param("since") LocalDateTime since);
 
         // Find all disbursements for a specific user's applications
-        @Query("SELECT dt FROM DisbursementTransaction dt " +
+        @EntityGraph(attributePaths = { "loanApplication", "loanApplication.user", "loanApplication.loanProduct" })
+        @Query(value = "SELECT dt FROM DisbursementTransaction dt " +
                         "JOIN dt.loanApplication la " +
                         "WHERE la.user.id = :userId " +
-                        "ORDER BY dt.transactionDate DESC")
+                        "ORDER BY dt.transactionDate DESC",
+                        countQuery = "SELECT COUNT(dt) FROM DisbursementTransaction dt " +
+                                        "WHERE dt.loanApplication.user.id = :userId")
         Page<DisbursementTransaction> findByUserIdOrderByTransactionDateDesc(@Param("userId") Long userId,
                         Pageable pageable);
 
-        // Statistics query for disbursed amount by date range
-        @Query("SELECT DATE(dt.transactionDate) as date, SUM(dt.amount) as totalAmount, COUNT(dt) as count " +
-                        "FROM DisbursementTransaction dt " +
-                        "WHERE dt.transactionDate >= :startDate AND dt.transactionDate <= :endDate " +
-                        "GROUP BY DATE(dt.transactionDate) " +
-                        "ORDER BY DATE(dt.transactionDate)")
-        List<Object[]> getDisbursedAmountByDateRange(@Param("startDate") LocalDateTime startDate,
-                        @Param("endDate") LocalDateTime endDate);
+        // Source query used to rebuild the disbursement reporting facts
+        @Query("SELECT year(dt.transactionDate), month(dt.transactionDate), day(dt.transactionDate), " +
+                        "hour(dt.transactionDate), la.loanProduct.id, " +
+                        "SUM(CASE WHEN dt.reversalOf IS NULL THEN 1 ELSE -1 END), SUM(dt.amount) " +
+                        "FROM DisbursementTransaction dt JOIN dt.loanApplication la " +
+                        "GROUP BY year(dt.transactionDate), month(dt.transactionDate), day(dt.transactionDate), " +
+                        "hour(dt.transactionDate), la.loanProduct.id")
+        List<Object[]> getDisbursementFactsByHour();
 }
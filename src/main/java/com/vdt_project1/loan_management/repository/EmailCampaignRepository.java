@@ -0,0 +1,55 @@
+package com.vdt_project1.loan_management.repository;
+
+import com.vdt_project1.loan_management.entity.EmailCampaign;
+import com.vdt_project1.loan_management.enums.EmailCampaignStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface EmailCampaignRepository extends JpaRepository<EmailCampaign, Long> {
+
+    // Render workers report progress concurrently, so counters are incremented in SQL
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailCampaign c SET c.queuedCount = c.queuedCount + :queued, " +
+            "c.failedCount = c.failedCount + :failed, c.updatedAt = :updatedAt WHERE c.id = :id")
+    int incrementProgress(@Param("id") Long id, @Param("queued") int queued, @Param("failed") int failed,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Moves a campaign from one status to the next, 0 when another writer changed it first
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailCampaign c SET c.status = :to, c.updatedAt = :updatedAt WHERE c.id = :id AND c.status = :from")
+    int transition(@Param("id") Long id, @Param("from") EmailCampaignStatus from, @Param("to") EmailCampaignStatus to,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailCampaign c SET c.status = :status, c.lastError = :lastError, " +
+            "c.completedAt = :completedAt WHERE c.id = :id AND c.status = :running")
+    int finish(@Param("id") Long id, @Param("running") EmailCampaignStatus running,
+            @Param("status") EmailCampaignStatus status, @Param("lastError") String lastError,
+            @Param("completedAt") LocalDateTime completedAt);
+
+    // Heartbeat for campaigns this instance still holds, so waiting in the queue does not look abandoned
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailCampaign c SET c.updatedAt = :updatedAt WHERE c.id IN :ids AND c.status IN :active")
+    int touch(@Param("ids") Collection<Long> ids, @Param("active") Collection<EmailCampaignStatus> active,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailCampaign c SET c.status = :failed, c.lastError = :lastError, c.completedAt = :now " +
+            "WHERE c.status IN :active AND COALESCE(c.updatedAt, c.createdAt) < :staleBefore")
+    int failStale(@Param("active") Collection<EmailCampaignStatus> active,
+            @Param("failed") EmailCampaignStatus failed, @Param("lastError") String lastError,
+            @Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now);
+}
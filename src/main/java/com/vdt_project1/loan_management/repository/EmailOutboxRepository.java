@@ -0,0 +1,25 @@
+package com.vdt_project1.loan_management.repository;
+
+import com.vdt_project1.loan_management.entity.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // SENDING rows whose lease ran out belong to a dispatcher that died mid-send and are picked up again
+    @Query(value = "SELECT * FROM email_outbox " +
+            "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+            "ORDER BY priority, next_attempt_at " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<EmailOutbox> findDueForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("SELECT e.status, COUNT(e) FROM EmailOutbox e WHERE e.campaignId = :campaignId GROUP BY e.status")
+    List<Object[]> countByCampaignIdGroupByStatus(@Param("campaignId") Long campaignId);
+}
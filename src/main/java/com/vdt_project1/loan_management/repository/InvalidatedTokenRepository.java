@@ -2,9 +2,25 @@ package com.vdt_project1.loan_management.repository;
 
 import com.vdt_project1.loan_management.entity.InvalidatedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
 
 @Repository
 public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
 
+    List<InvalidatedToken> findByExpirationTimeAfter(Date cutoff);
+
+    // Deletes at most batchSize expired rows in its own short transaction
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM invalidated_tokens WHERE id IN (" +
+            "SELECT id FROM invalidated_tokens WHERE expiration_time < :cutoff LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Date cutoff, @Param("batchSize") int batchSize);
 }
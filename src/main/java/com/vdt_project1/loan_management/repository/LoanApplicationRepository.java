@@ -3,17 +3,23 @@ package com.vdt_project1.loan_management.repository;
 import com.vdt_project1.loan_management.entity.LoanApplication;
 import com.vdt_project1.loan_management.entity.LoanProduct;
 import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
-import com.vdt_project1.loan_management.enums.LoanProductStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
-public interface LoanApplicationRepository extends JpaRepository<LoanApplication, Long> {
+public interface LoanApplicationRepository extends JpaRepository<LoanApplication, Long>,
+                JpaSpecificationExecutor<LoanApplication> {
         // Page<LoanProduct> findByNameContainingIgnoreCaseAndStatus(String name,
         // LoanProductStatus status, Pageable pageable);
         //
@@ -22,29 +28,113 @@ public interface LoanApplicationRepository extends JpaRepository<LoanApplication
         //
         // Page<LoanProduct> findByStatus(LoanProductStatus status, Pageable pageable);
 
+        @Override
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
+        Page<LoanApplication> findAll(Pageable pageable);
+
+        @Override
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
+        Optional<LoanApplication> findById(Long id);
+
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
         Page<LoanApplication> findByUserId(Long userId, Pageable pageable);
 
-        Page<LoanApplication> findByStatus(LoanProductStatus status, Pageable pageable);
+        // Admin search, see LoanApplicationSpecifications
+        @Override
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
+        Page<LoanApplication> findAll(Specification<LoanApplication> spec, Pageable pageable);
+
+        Page<LoanApplication> findByStatus(LoanApplicationStatus status, Pageable pageable);
 
         Page<LoanApplication> findByLoanProduct(LoanProduct loanProduct, Pageable pageable);
 
-        // Statistics queries
-        @Query("SELECT la.status as status, COUNT(la) as count FROM LoanApplication la GROUP BY la.status")
-        List<Object[]> getApplicationCountByStatus();
+        // Keyset pagination on (createdAt, id): each page seeks past the previous one instead of skipping rows,
+        // and the List return type means no COUNT query is issued. Rows without a createdAt come first, the order
+        // a backward scan of the (created_at, application_id) index returns, and have their own seek below.
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
+        @Query("SELECT la FROM LoanApplication la ORDER BY la.createdAt DESC NULLS FIRST, la.id DESC")
+        List<LoanApplication> findFirstPage(Pageable limit);
+
+        // A non-null (createdAt, id) is never greater than a null one, so this already skips the null rows
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
+        @Query("SELECT la FROM LoanApplication la WHERE (la.createdAt, la.id) < (:createdAt, :id) " +
+                        "ORDER BY la.createdAt DESC NULLS FIRST, la.id DESC")
+        List<LoanApplication> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                        Pageable limit);
+
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
+        @Query("SELECT la FROM LoanApplication la WHERE (la.createdAt IS NULL AND la.id < :id) " +
+                        "OR la.createdAt IS NOT NULL " +
+                        "ORDER BY la.createdAt DESC NULLS FIRST, la.id DESC")
+        List<LoanApplication> findPageAfterUndated(@Param("id") Long id, Pageable limit);
+
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
+        @Query("SELECT la FROM LoanApplication la WHERE la.user.id = :userId " +
+                        "ORDER BY la.createdAt DESC NULLS FIRST, la.id DESC")
+        List<LoanApplication> findFirstPageByUserId(@Param("userId") Long userId, Pageable limit);
+
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
+        @Query("SELECT la FROM LoanApplication la WHERE la.user.id = :userId " +
+                        "AND (la.createdAt, la.id) < (:createdAt, :id) " +
+                        "ORDER BY la.createdAt DESC NULLS FIRST, la.id DESC")
+        List<LoanApplication> findPageByUserIdAfter(@Param("userId") Long userId,
+                        @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable limit);
+
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
+        @Query("SELECT la FROM LoanApplication la WHERE la.user.id = :userId " +
+                        "AND ((la.createdAt IS NULL AND la.id < :id) OR la.createdAt IS NOT NULL) " +
+                        "ORDER BY la.createdAt DESC NULLS FIRST, la.id DESC")
+        List<LoanApplication> findPageByUserIdAfterUndated(@Param("userId") Long userId, @Param("id") Long id,
+                        Pageable limit);
 
-        @Query("SELECT lp.name as productName, COUNT(la) as count FROM LoanApplication la " +
-                        "JOIN la.loanProduct lp GROUP BY lp.name")
-        List<Object[]> getApplicationCountByProduct();
+        long countByUserId(Long userId);
 
-        @Query("SELECT COUNT(la) FROM LoanApplication la WHERE la.status = :status")
-        Long countByStatus(@Param("status") LoanApplicationStatus status);
+        // Serializes disbursements of one application, other applications are not blocked
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT la FROM LoanApplication la WHERE la.id = :id")
+        Optional<LoanApplication> findByIdForUpdate(@Param("id") Long id);
 
-        @Query("SELECT DATE(la.createdAt) as date, SUM(la.requestedAmount) as totalAmount, COUNT(la) as count " +
+        // Rows: requested amount, disbursed total, disbursement count
+        @Query("SELECT la.requestedAmount, la.disbursedTotal, la.disbursementCount FROM LoanApplication la " +
+                        "WHERE la.id = :id")
+        List<Object[]> findDisbursementTotals(@Param("id") Long id);
+
+        // Rows: id, disbursed total, disbursement count, actual sum and net count of its ledger entries
+        @Query("SELECT la.id, la.disbursedTotal, la.disbursementCount, COALESCE(SUM(dt.amount), 0), " +
+                        "COALESCE(SUM(CASE WHEN dt.reversalOf IS NULL THEN 1 ELSE -1 END), 0) " +
                         "FROM LoanApplication la " +
-                        "WHERE la.status = 'APPROVED' OR la.status = 'PARTIALLY_DISBURSED' OR la.status = 'FULLY_DISBURSED' AND la.createdAt >= :startDate AND la.createdAt <= :endDate "
-                        +
-                        "GROUP BY DATE(la.createdAt) " +
-                        "ORDER BY DATE(la.createdAt)")
-        List<Object[]> getApprovedAmountByDateRange(@Param("startDate") LocalDateTime startDate,
-                        @Param("endDate") LocalDateTime endDate);
+                        "LEFT JOIN DisbursementTransaction dt ON dt.applicationId = la.id " +
+                        "WHERE la.id > :afterId " +
+                        "GROUP BY la.id, la.disbursedTotal, la.disbursementCount " +
+                        "ORDER BY la.id")
+        List<Object[]> findDisbursementTotalsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+        // Same lock for many applications, taken in id order so concurrent imports cannot deadlock
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT la FROM LoanApplication la WHERE la.id IN :ids ORDER BY la.id")
+        List<LoanApplication> findAllByIdInForUpdate(@Param("ids") List<Long> ids);
+
+        @Query("SELECT la.id FROM LoanApplication la WHERE la.status = :status ORDER BY la.id")
+        List<Long> findIdsByStatus(@Param("status") LoanApplicationStatus status);
+
+        @EntityGraph(LoanApplication.DETAILS_GRAPH)
+        List<LoanApplication> findAllWithDetailsByIdIn(List<Long> ids);
+
+        @Query("SELECT la FROM LoanApplication la JOIN FETCH la.user JOIN FETCH la.loanProduct WHERE la.id IN :ids")
+        List<LoanApplication> findAllWithUserAndProductByIdIn(@Param("ids") List<Long> ids);
+
+        // Source queries used to rebuild the reporting rollups
+        @Query("SELECT la.status as status, COUNT(la) as count FROM LoanApplication la GROUP BY la.status")
+        List<Object[]> getApplicationCountByStatus();
+
+        @Query("SELECT la.loanProduct.id as productId, COUNT(la) as count FROM LoanApplication la " +
+                        "GROUP BY la.loanProduct.id")
+        List<Object[]> getApplicationCountByProductId();
+
+        @Query("SELECT year(la.createdAt), month(la.createdAt), day(la.createdAt), hour(la.createdAt), " +
+                        "la.loanProduct.id, la.status, COUNT(la), SUM(la.requestedAmount) " +
+                        "FROM LoanApplication la WHERE la.createdAt IS NOT NULL " +
+                        "GROUP BY year(la.createdAt), month(la.createdAt), day(la.createdAt), hour(la.createdAt), " +
+                        "la.loanProduct.id, la.status")
+        List<Object[]> getApplicationFactsByHour();
 }
@@ -0,0 +1,59 @@
+package com.vdt_project1.loan_management.repository;
+
+import com.vdt_project1.loan_management.dto.request.LoanApplicationSearchRequest;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the admin search predicate. Only the criteria that are present end up
+ * in the WHERE clause, so each filter combination maps onto one of the
+ * composite indexes declared on {@link LoanApplication}. Product and user are
+ * compared on their foreign key columns, no join is added.
+ */
+public final class LoanApplicationSpecifications {
+
+    private LoanApplicationSpecifications() {
+    }
+
+    public static Specification<LoanApplication> matching(LoanApplicationSearchRequest request) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (request.getStatus() != null && !request.getStatus().isEmpty()) {
+                predicates.add(request.getStatus().size() == 1
+                        ? cb.equal(root.get("status"), request.getStatus().get(0))
+                        : root.get("status").in(request.getStatus()));
+            }
+            if (request.getProductId() != null) {
+                predicates.add(cb.equal(root.get("loanProduct").get("id"), request.getProductId()));
+            }
+            if (request.getUserId() != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), request.getUserId()));
+            }
+            if (request.getMinAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("requestedAmount"), request.getMinAmount()));
+            }
+            if (request.getMaxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("requestedAmount"), request.getMaxAmount()));
+            }
+            if (request.getMinTerm() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("requestedTerm"), request.getMinTerm()));
+            }
+            if (request.getMaxTerm() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("requestedTerm"), request.getMaxTerm()));
+            }
+            if (request.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), request.getCreatedFrom()));
+            }
+            if (request.getCreatedTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), request.getCreatedTo()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -7,10 +7,14 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
+import java.util.List;
+
 public interface LoanProductRepository extends JpaRepository<LoanProduct, Long> {
     Page<LoanProduct> findByNameContainingIgnoreCaseAndStatus(String name, LoanProductStatus status, Pageable pageable);
 
     Page<LoanProduct> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
     Page<LoanProduct> findByStatus(LoanProductStatus status, Pageable pageable);
+
+    List<LoanProduct> findByStatus(LoanProductStatus status);
 }
@@ -0,0 +1,40 @@
+package com.vdt_project1.loan_management.repository;
+
+import com.vdt_project1.loan_management.entity.ReportApplicationFact;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReportApplicationFactRepository extends JpaRepository<ReportApplicationFact, Long> {
+
+    // Creates the row on first use, so the delta always lands in the caller's transaction
+    @Modifying
+    @Query(value = "INSERT INTO report_application_facts " +
+            "(bucket_start, product_id, status, application_count, requested_amount) " +
+            "VALUES (:bucketStart, :productId, :status, :count, :amount) " +
+            "ON CONFLICT (bucket_start, product_id, status) DO UPDATE " +
+            "SET application_count = report_application_facts.application_count + EXCLUDED.application_count, " +
+            "requested_amount = report_application_facts.requested_amount + EXCLUDED.requested_amount",
+            nativeQuery = true)
+    int increment(@Param("bucketStart") LocalDateTime bucketStart, @Param("productId") Long productId,
+            @Param("status") String status, @Param("count") long count, @Param("amount") long amount);
+
+    @Query("SELECT f FROM ReportApplicationFact f WHERE f.bucketStart >= :from AND f.bucketStart < :to " +
+            "AND f.status IN :statuses")
+    List<ReportApplicationFact> findInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("statuses") Collection<LoanApplicationStatus> statuses);
+
+    @Query("SELECT f FROM ReportApplicationFact f WHERE f.bucketStart >= :from AND f.bucketStart < :to " +
+            "AND f.status IN :statuses AND f.productId IN :productIds")
+    List<ReportApplicationFact> findInRangeForProducts(@Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to, @Param("statuses") Collection<LoanApplicationStatus> statuses,
+            @Param("productIds") Collection<Long> productIds);
+}
@@ -0,0 +1,36 @@
+package com.vdt_project1.loan_management.repository;
+
+import com.vdt_project1.loan_management.entity.ReportDisbursementFact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReportDisbursementFactRepository extends JpaRepository<ReportDisbursementFact, Long> {
+
+    // Creates the row on first use, so the delta always lands in the caller's transaction
+    @Modifying
+    @Query(value = "INSERT INTO report_disbursement_facts " +
+            "(bucket_start, product_id, disbursed_count, disbursed_amount) " +
+            "VALUES (:bucketStart, :productId, :count, :amount) " +
+            "ON CONFLICT (bucket_start, product_id) DO UPDATE " +
+            "SET disbursed_count = report_disbursement_facts.disbursed_count + EXCLUDED.disbursed_count, " +
+            "disbursed_amount = report_disbursement_facts.disbursed_amount + EXCLUDED.disbursed_amount",
+            nativeQuery = true)
+    int increment(@Param("bucketStart") LocalDateTime bucketStart, @Param("productId") Long productId,
+            @Param("count") long count, @Param("amount") long amount);
+
+    @Query("SELECT f FROM ReportDisbursementFact f WHERE f.bucketStart >= :from AND f.bucketStart < :to")
+    List<ReportDisbursementFact> findInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT f FROM ReportDisbursementFact f WHERE f.bucketStart >= :from AND f.bucketStart < :to " +
+            "AND f.productId IN :productIds")
+    List<ReportDisbursementFact> findInRangeForProducts(@Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to, @Param("productIds") Collection<Long> productIds);
+}
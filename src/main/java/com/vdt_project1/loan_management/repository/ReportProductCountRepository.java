@@ -0,0 +1,26 @@
+package com.vdt_project1.loan_management.repository;
+
+import com.vdt_project1.loan_management.entity.ReportProductCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReportProductCountRepository extends JpaRepository<ReportProductCount, Long> {
+
+    // Creates the row on first use, so the delta always lands in the caller's transaction
+    @Modifying
+    @Query(value = "INSERT INTO report_product_counts (product_id, application_count) VALUES (:productId, :delta) " +
+            "ON CONFLICT (product_id) DO UPDATE " +
+            "SET application_count = report_product_counts.application_count + EXCLUDED.application_count",
+            nativeQuery = true)
+    int increment(@Param("productId") Long productId, @Param("delta") long delta);
+
+    @Query("SELECT lp.name, r.applicationCount FROM ReportProductCount r, LoanProduct lp " +
+            "WHERE lp.id = r.productId AND r.applicationCount > 0")
+    List<Object[]> findCountsWithProductName();
+}
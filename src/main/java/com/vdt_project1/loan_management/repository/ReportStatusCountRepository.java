@@ -0,0 +1,21 @@
+package com.vdt_project1.loan_management.repository;
+
+import com.vdt_project1.loan_management.entity.ReportStatusCount;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReportStatusCountRepository extends JpaRepository<ReportStatusCount, LoanApplicationStatus> {
+
+    // Creates the row on first use, so the delta always lands in the caller's transaction
+    @Modifying
+    @Query(value = "INSERT INTO report_status_counts (status, application_count) VALUES (:status, :delta) " +
+            "ON CONFLICT (status) DO UPDATE " +
+            "SET application_count = report_status_counts.application_count + EXCLUDED.application_count",
+            nativeQuery = true)
+    int increment(@Param("status") String status, @Param("delta") long delta);
+}
@@ -15,10 +15,5 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
-    Page<User> findByFullNameContainingIgnoreCaseAndAccountStatus(
-            String fullName, AccountStatus accountStatus, Pageable pageable);
-
-    Page<User> findByFullNameContainingIgnoreCase(String fullName, Pageable pageable);
-
     Page<User> findByAccountStatus(AccountStatus accountStatus, Pageable pageable);
 }
@@ -0,0 +1,241 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.response.AmortizationInstallmentResponse;
+import com.vdt_project1.loan_management.dto.response.AmortizationQuoteResponse;
+import com.vdt_project1.loan_management.dto.response.AmortizationScheduleResponse;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.entity.LoanProduct;
+import com.vdt_project1.loan_management.enums.AmortizationMethod;
+import com.vdt_project1.loan_management.enums.LoanProductStatus;
+import com.vdt_project1.loan_management.exception.AppException;
+import com.vdt_project1.loan_management.exception.ErrorCode;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.LoanProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repayment schedules for loan applications, and what-if quotes across loan
+ * products.
+ *
+ * Amounts are whole VND, which has no minor unit, so all money is long. The
+ * monthly rate is kept as the exact fraction annualRate / 1200 and each
+ * period's interest is balance * rate rounded half up, without floating
+ * point. Only the annuity payment needs a power of (1 + rate), it is computed
+ * once per schedule with BigDecimal. The last installment repays whatever
+ * balance is left, so principals always add up to the loan amount exactly.
+ * Amounts are capped so that sums over a full term fit in a long, and any
+ * overflow that still happens is reported as invalid input.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class AmortizationService {
+    private static final long MAX_AMOUNT = 1_000_000_000_000_000L;
+    private static final int MAX_TERM = 600;
+    private static final int MAX_RATE_SCALE = 6;
+
+    LoanApplicationRepository loanApplicationRepository;
+    LoanProductRepository loanProductRepository;
+
+    // Monthly rate as numerator / denominator
+    record MonthlyRate(long numerator, long denominator) {
+        static MonthlyRate ofAnnualPercent(Double annualRate) {
+            if (annualRate != null && !Double.isFinite(annualRate)) {
+                throw new AppException(ErrorCode.INVALID_AMORTIZATION_INPUT);
+            }
+            BigDecimal rate = BigDecimal.valueOf(annualRate == null ? 0 : annualRate).stripTrailingZeros();
+            if (rate.scale() < 0) {
+                rate = rate.setScale(0);
+            } else if (rate.scale() > MAX_RATE_SCALE) {
+                rate = rate.setScale(MAX_RATE_SCALE, RoundingMode.HALF_UP);
+            }
+            if (rate.signum() < 0) {
+                throw new AppException(ErrorCode.INVALID_AMORTIZATION_INPUT);
+            }
+            try {
+                return new MonthlyRate(rate.unscaledValue().longValueExact(),
+                        1200 * BigInteger.TEN.pow(rate.scale()).longValueExact());
+            } catch (ArithmeticException e) {
+                throw new AppException(ErrorCode.INVALID_AMORTIZATION_INPUT);
+            }
+        }
+
+        long interestOn(long balance) {
+            try {
+                long product = Math.multiplyExact(balance, numerator);
+                return Math.addExact(product, denominator / 2) / denominator;
+            } catch (ArithmeticException e) {
+                return BigInteger.valueOf(balance).multiply(BigInteger.valueOf(numerator))
+                        .add(BigInteger.valueOf(denominator / 2))
+                        .divide(BigInteger.valueOf(denominator))
+                        .longValueExact();
+            }
+        }
+    }
+
+    // One column per schedule field, one slot per period, totals summed while the schedule is built
+    record Schedule(long[] payment, long[] principal, long[] interest, long[] balance, long totalPayment,
+            long totalInterest) {
+        long maxPayment() {
+            long max = 0;
+            for (long value : payment) {
+                max = Math.max(max, value);
+            }
+            return max;
+        }
+    }
+
+    static Schedule schedule(AmortizationMethod method, long amount, MonthlyRate rate, int term) {
+        if (amount <= 0 || amount > MAX_AMOUNT || term <= 0 || term > MAX_TERM) {
+            throw new AppException(ErrorCode.INVALID_AMORTIZATION_INPUT);
+        }
+        try {
+            return build(method, amount, rate, term);
+        } catch (ArithmeticException e) {
+            log.warn("Amortization of {} over {} months at {}/{} overflows: {}", amount, term, rate.numerator(),
+                    rate.denominator(), e.getMessage());
+            throw new AppException(ErrorCode.INVALID_AMORTIZATION_INPUT);
+        }
+    }
+
+    private static Schedule build(AmortizationMethod method, long amount, MonthlyRate rate, int term) {
+        long[] payment = new long[term];
+        long[] principal = new long[term];
+        long[] interest = new long[term];
+        long[] balance = new long[term];
+
+        long level = switch (method) {
+            case ANNUITY -> annuityPayment(amount, rate, term);
+            case EQUAL_PRINCIPAL -> amount / term;
+            case INTEREST_ONLY -> 0;
+        };
+        long remaining = amount;
+        long totalPayment = 0;
+        long totalInterest = 0;
+        for (int period = 0; period < term; period++) {
+            long periodInterest = rate.interestOn(remaining);
+            long periodPrincipal;
+            if (period == term - 1) {
+                periodPrincipal = remaining;
+            } else if (method == AmortizationMethod.ANNUITY) {
+                periodPrincipal = Math.min(Math.max(level - periodInterest, 0), remaining);
+            } else {
+                periodPrincipal = Math.min(level, remaining);
+            }
+            remaining -= periodPrincipal;
+            interest[period] = periodInterest;
+            principal[period] = periodPrincipal;
+            payment[period] = Math.addExact(periodInterest, periodPrincipal);
+            balance[period] = remaining;
+            totalPayment = Math.addExact(totalPayment, payment[period]);
+            totalInterest = Math.addExact(totalInterest, periodInterest);
+        }
+        return new Schedule(payment, principal, interest, balance, totalPayment, totalInterest);
+    }
+
+    // amount * i * (1 + i)^n / ((1 + i)^n - 1), or amount / n without interest
+    static long annuityPayment(long amount, MonthlyRate rate, int term) {
+        BigDecimal principal = BigDecimal.valueOf(amount);
+        if (rate.numerator() == 0) {
+            return principal.divide(BigDecimal.valueOf(term), 0, RoundingMode.HALF_UP).longValueExact();
+        }
+        BigDecimal i = BigDecimal.valueOf(rate.numerator()).divide(BigDecimal.valueOf(rate.denominator()),
+                MathContext.DECIMAL128);
+        BigDecimal growth = BigDecimal.ONE.add(i).pow(term, MathContext.DECIMAL128);
+        return principal.multiply(i).multiply(growth)
+                .divide(growth.subtract(BigDecimal.ONE), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    @Transactional(readOnly = true)
+    public AmortizationScheduleResponse getApplicationSchedule(Long applicationId, AmortizationMethod method,
+            LocalDate firstDueDate) {
+        LoanApplication application = loanApplicationRepository.findById(applicationId)
+                .orElseThrow(() -> new AppException(ErrorCode.LOAN_APPLICATION_NOT_FOUND));
+        LoanProduct product = application.getLoanProduct();
+        AmortizationMethod scheduleMethod = Optional.ofNullable(method).orElse(AmortizationMethod.ANNUITY);
+        LocalDate firstDue = Optional.ofNullable(firstDueDate).orElseGet(() -> LocalDate.now().plusMonths(1));
+        long amount = Optional.ofNullable(application.getRequestedAmount()).orElse(0L);
+        int term = Optional.ofNullable(application.getRequestedTerm()).orElse(0);
+
+        Schedule schedule = schedule(scheduleMethod, amount, MonthlyRate.ofAnnualPercent(product.getInterestRate()),
+                term);
+        List<AmortizationInstallmentResponse> installments = new ArrayList<>(term);
+        for (int period = 0; period < term; period++) {
+            installments.add(AmortizationInstallmentResponse.builder()
+                    .period(period + 1)
+                    .dueDate(firstDue.plusMonths(period))
+                    .payment(schedule.payment()[period])
+                    .principal(schedule.principal()[period])
+                    .interest(schedule.interest()[period])
+                    .remainingBalance(schedule.balance()[period])
+                    .build());
+        }
+        return AmortizationScheduleResponse.builder()
+                .applicationId(applicationId)
+                .productId(product.getId())
+                .productName(product.getName())
+                .method(scheduleMethod)
+                .principal(amount)
+                .annualInterestRate(product.getInterestRate())
+                .termMonths(term)
+                .firstDueDate(firstDue)
+                .firstPayment(schedule.payment()[0])
+                .totalPayment(schedule.totalPayment())
+                .totalInterest(schedule.totalInterest())
+                .installments(installments)
+                .build();
+    }
+
+    // Same loan priced by every active product, cheapest first
+    @Transactional(readOnly = true)
+    public List<AmortizationQuoteResponse> quoteProducts(long amount, int term, AmortizationMethod method) {
+        long start = System.nanoTime();
+        AmortizationMethod quoteMethod = Optional.ofNullable(method).orElse(AmortizationMethod.ANNUITY);
+        List<LoanProduct> products = loanProductRepository.findByStatus(LoanProductStatus.ACTIVE);
+        List<AmortizationQuoteResponse> quotes = new ArrayList<>(products.size());
+        for (LoanProduct product : products) {
+            Schedule schedule = schedule(quoteMethod, amount, MonthlyRate.ofAnnualPercent(product.getInterestRate()),
+                    term);
+            quotes.add(AmortizationQuoteResponse.builder()
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .annualInterestRate(product.getInterestRate())
+                    .method(quoteMethod)
+                    .principal(amount)
+                    .termMonths(term)
+                    .eligible(isEligible(product, amount, term))
+                    .firstPayment(schedule.payment()[0])
+                    .maxPayment(schedule.maxPayment())
+                    .totalPayment(schedule.totalPayment())
+                    .totalInterest(schedule.totalInterest())
+                    .build());
+        }
+        quotes.sort(Comparator.comparing(AmortizationQuoteResponse::getTotalInterest));
+        log.info("Quoted {} loan products for {} over {} months in {} us", quotes.size(), amount, term,
+                (System.nanoTime() - start) / 1000);
+        return quotes;
+    }
+
+    private boolean isEligible(LoanProduct product, long amount, int term) {
+        return (product.getMinAmount() == null || amount >= product.getMinAmount())
+                && (product.getMaxAmount() == null || amount <= product.getMaxAmount())
+                && (product.getMinTerm() == null || term >= product.getMinTerm())
+                && (product.getMaxTerm() == null || term <= product.getMaxTerm());
+    }
+}
@@ -1,40 +1,32 @@
 package com.vdt_project1.loan_management.service;
 
 import com.nimbusds.jose.*;
-import com.nimbusds.jose.crypto.MACSigner;
-import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import com.vdt_project1.loan_management.configuration.VerifiedTokenCache;
 import com.vdt_project1.loan_management.dto.request.*;
 import com.vdt_project1.loan_management.dto.response.ApiResponse;
 import com.vdt_project1.loan_management.dto.response.AuthenticationResponse;
 import com.vdt_project1.loan_management.dto.response.IntrospectResponse;
-import com.vdt_project1.loan_management.entity.InvalidatedToken;
 import com.vdt_project1.loan_management.entity.User;
 import com.vdt_project1.loan_management.entity.VerificationToken;
 import com.vdt_project1.loan_management.enums.AccountStatus;
 import com.vdt_project1.loan_management.enums.VerificationTokenType;
 import com.vdt_project1.loan_management.exception.AppException;
 import com.vdt_project1.loan_management.exception.ErrorCode;
-import com.vdt_project1.loan_management.repository.InvalidatedTokenRepository;
 import com.vdt_project1.loan_management.repository.UserRepository;
-import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Date;
-import java.util.StringJoiner;
 import java.util.UUID;
 
 @Service
@@ -43,14 +35,15 @@ import java.util.UUID;
 @FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
 public class AuthenticationService {
     UserRepository userRepository;
-    InvalidatedTokenRepository invalidatedTokenRepository;
+    TokenRevocationService tokenRevocationService;
+    VerifiedTokenCache verifiedTokenCache;
+    RoleScopeCache roleScopeCache;
+    PasswordHashingService passwordHashingService;
+    JWSSigner jwsSigner;
+    JWSVerifier jwsVerifier;
     EmailService emailService;
     VerificationTokenService verificationTokenService;
 
-    @NonFinal
-    @Value("${jwt.signerKey}")
-    protected String SIGNER_KEY;
-
     @NonFinal
     @Value("${jwt.access-token-expiration}")
     protected long ACCESS_TOKEN_EXPIRATION;
@@ -60,10 +53,10 @@ public class AuthenticationService {
     protected long REFRESH_DURATION;
 
     public AuthenticationResponse authenticate(AuthenticationRequest authenticationRequest) throws KeyLengthException {
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
         var user = userRepository.findByEmail(authenticationRequest.getEmail())
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXIST));
-        boolean isAuthenticated = passwordEncoder.matches(authenticationRequest.getPassword(), user.getPassword());
+        boolean isAuthenticated = passwordHashingService.matches(authenticationRequest.getPassword(),
+                user.getPassword());
         if (!isAuthenticated) {
             throw new AppException(ErrorCode.UNAUTHENTICATED);
         }
@@ -71,6 +64,11 @@ public class AuthenticationService {
         if(user.getAccountStatus() == null || user.getAccountStatus() != AccountStatus.ACTIVE) {
             throw new AppException(ErrorCode.USER_ACCOUNT_INACTIVE);
         }
+        // re-hash with the configured cost while the raw password is at hand
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(authenticationRequest.getPassword()));
+            userRepository.save(user);
+        }
 
         var token = generateToken(user);
         return AuthenticationResponse.builder()
@@ -83,12 +81,8 @@ public class AuthenticationService {
         var signedJWT = verifyToken(request.getToken(), true);
         var jti = signedJWT.getJWTClaimsSet().getJWTID();
         var expirationTime = signedJWT.getJWTClaimsSet().getExpirationTime();
-        InvalidatedToken invalidatedToken = InvalidatedToken.builder()
-                .id(jti)
-                .expirationTime(expirationTime)
-                .build();
-
-        invalidatedTokenRepository.save(invalidatedToken);
+        tokenRevocationService.revoke(jti, expirationTime);
+        verifiedTokenCache.evict(request.getToken());
 
         String email = signedJWT.getJWTClaimsSet().getSubject();
         User user = userRepository.findByEmail(email)
@@ -114,11 +108,13 @@ public class AuthenticationService {
                 .build();
     }
 
-    private SignedJWT verifyToken(String token, boolean isRefresh) throws JOSEException, ParseException {
-        log.info("Verifying token: {}", token);
-        JWSVerifier verifier = new MACVerifier(SIGNER_KEY.getBytes(StandardCharsets.UTF_8));
+    public SignedJWT verifyToken(String token, boolean isRefresh) throws JOSEException, ParseException {
         SignedJWT signedJWT = SignedJWT.parse(token);
-        var verified = signedJWT.verify(verifier);
+        // Tokens are only issued with HS256, the MAC verifier alone would also accept HS384 and HS512
+        if (!JWSAlgorithm.HS256.equals(signedJWT.getHeader().getAlgorithm())) {
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        }
+        var verified = signedJWT.verify(jwsVerifier);
         Date expirationTime = (isRefresh)
                 ? new Date(signedJWT.getJWTClaimsSet().getIssueTime()
                         .toInstant().plusSeconds(REFRESH_DURATION).toEpochMilli())
@@ -128,7 +124,8 @@ public class AuthenticationService {
             throw new AppException(ErrorCode.UNAUTHENTICATED);
         }
 
-        if (invalidatedTokenRepository.existsById(signedJWT.getJWTClaimsSet().getJWTID())) {
+        String jti = signedJWT.getJWTClaimsSet().getJWTID();
+        if (jti == null || tokenRevocationService.isRevoked(jti)) {
             throw new AppException(ErrorCode.UNAUTHENTICATED);
         }
 
@@ -145,13 +142,14 @@ public class AuthenticationService {
                 .expirationTime(new Date(
                         Instant.now().plusSeconds(ACCESS_TOKEN_EXPIRATION).toEpochMilli()))
                 .jwtID(UUID.randomUUID().toString())
+                .claim("userId", user.getId())
                 .claim("scope", buildScope(user))
                 .build();
         Payload payload = new Payload(claimsSet.toJSONObject());
         JWSObject jwsObject = new JWSObject(header, payload);
 
         try {
-            jwsObject.sign(new MACSigner(SIGNER_KEY.getBytes(StandardCharsets.UTF_8)));
+            jwsObject.sign(jwsSigner);
             return jwsObject.serialize();
         } catch (JOSEException e) {
             System.err.println("Error generating JWT: " + e.getMessage());
@@ -160,14 +158,11 @@ public class AuthenticationService {
     }
 
     private String buildScope(User user) {
-        StringJoiner stringJoiner = new StringJoiner(" ");
-        if (user.getRole() != null) {
-            stringJoiner.add("ROLE_" + user.getRole().getName());
-            if (!CollectionUtils.isEmpty(user.getRole().getPermissions())) {
-                user.getRole().getPermissions().forEach(permission -> stringJoiner.add(permission.getName()));
-            }
+        if (user.getRole() == null) {
+            return "";
         }
-        return stringJoiner.toString();
+        RoleScopeCache.RoleScope roleScope = roleScopeCache.get(user.getRole().getName());
+        return roleScope != null ? roleScope.scope() : "ROLE_" + user.getRole().getName();
     }
 
     public void logout(InvalidatedTokenRequest request) throws ParseException, JOSEException {
@@ -177,16 +172,15 @@ public class AuthenticationService {
             String jti = signToken.getJWTClaimsSet().getJWTID();
             Date expirationTime = signToken.getJWTClaimsSet().getExpirationTime();
 
-            InvalidatedToken invalidatedToken = InvalidatedToken.builder().id(jti).expirationTime(expirationTime)
-                    .build();
-
-            invalidatedTokenRepository.save(invalidatedToken);
+            tokenRevocationService.revoke(jti, expirationTime);
+            verifiedTokenCache.evict(request.getToken());
         } catch (AppException exception) {
             log.info("Token already expired");
         }
     }
 
-    public String sendVerificationEmailPasswordReset(String email) throws MessagingException {
+    @Transactional
+    public String sendVerificationEmailPasswordReset(String email) {
         log.info("Sending verification email for password reset to: {}", email);
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXIST));
@@ -209,7 +203,8 @@ public class AuthenticationService {
         return null;
     }
 
-    public String sendVerificationEmailAccountActivation(String email) throws MessagingException {
+    @Transactional
+    public String sendVerificationEmailAccountActivation(String email) {
         log.info("Sending verification email to: {}", email);
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXIST));
@@ -275,8 +270,7 @@ public class AuthenticationService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXIST));
 
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
-        String encodedPassword = passwordEncoder.encode(request.getNewPassword());
+        String encodedPassword = passwordHashingService.encode(request.getNewPassword());
         user.setPassword(encodedPassword);
         userRepository.save(user);
 
@@ -0,0 +1,68 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.response.CurrentUserDto;
+import com.vdt_project1.loan_management.event.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Short-lived, process-wide cache of the authenticated user's snapshot, keyed by
+ * email (the JWT subject). An entry is evicted once a change to the user
+ * commits; other instances of the application see the change once the TTL passes.
+ */
+@Component
+public class CurrentUserCache {
+
+    private record Entry(CurrentUserDto user, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.user-cache.ttl:30}")
+    private long ttlSeconds;
+
+    @Value("${app.user-cache.max-size:10000}")
+    private int maxSize;
+
+    public CurrentUserDto get(String email, Function<String, CurrentUserDto> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(email);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.user();
+        }
+
+        CurrentUserDto user = loader.apply(email);
+        if (entries.size() >= maxSize) {
+            entries.values().removeIf(e -> e.expiresAt() <= now);
+        }
+        if (entries.size() < maxSize) {
+            entries.put(email, new Entry(user, now + ttlSeconds * 1000));
+        }
+        return user;
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            entries.remove(email);
+        }
+    }
+
+    public void evictUser(Long userId) {
+        entries.values().removeIf(entry -> entry.user().getId().equals(userId));
+    }
+
+    // By id as well, so an entry cached under an email the change replaced goes too
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.email());
+        if (event.userId() != null) {
+            evictUser(event.userId());
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package com.vdt_project1.loan_management.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vdt_project1.loan_management.configuration.DisbursementImportProperties;
+import com.vdt_project1.loan_management.dto.response.DisbursementImportResponse;
+import com.vdt_project1.loan_management.dto.response.DisbursementImportRowResponse;
+import com.vdt_project1.loan_management.entity.DisbursementTransaction;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.enums.DisbursementImportRowStatus;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.enums.NotificationType;
+import com.vdt_project1.loan_management.event.ReportDataChangedEvent;
+import com.vdt_project1.loan_management.exception.AppException;
+import com.vdt_project1.loan_management.exception.ErrorCode;
+import com.vdt_project1.loan_management.repository.DisbursementTransactionRepository;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Imports a file of disbursements in one transaction.
+ *
+ * The whole file is parsed and validated in memory first. Every application it
+ * references is loaded (and row-locked, in id order) with a handful of IN
+ * queries, and the rows are checked in file order against a running copy of
+ * each application's status and disbursed total, so a file may disburse the
+ * same application several times. Accepted rows are then written with JDBC
+ * batch inserts, the affected applications with one batched update, and the
+ * rollups, notifications and emails once per application rather than once per
+ * row. Rejected rows do not stop the import; each row gets a result in the
+ * response.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class DisbursementImportService {
+    private static final int MAX_NOTES_LENGTH = 500;
+    private static final String INSERT_DISBURSEMENT = "INSERT INTO disbursement_transactions "
+            + "(application_id, amount, transaction_date, notes, idempotency_key, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_APPLICATION = "UPDATE loan_applications "
+            + "SET status = ?, disbursed_total = ?, disbursement_count = ?, updated_at = ? "
+            + "WHERE application_id = ?";
+    private static final String INSERT_NOTIFICATION = "INSERT INTO notifications "
+            + "(user_id, application_id, message, is_read, notification_type, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    LoanApplicationRepository loanApplicationRepository;
+    DisbursementTransactionRepository disbursementTransactionRepository;
+    ReportRollupService reportRollupService;
+    EmailService emailService;
+    UserService userService;
+    ApplicationEventPublisher eventPublisher;
+    JdbcTemplate jdbcTemplate;
+    ObjectMapper objectMapper;
+    DisbursementImportProperties properties;
+
+    // One parsed file row, error is set when the row itself is malformed
+    private record ImportRow(int rowNumber, Long applicationId, Long amount, LocalDateTime transactionDate,
+            String notes, String idempotencyKey, String error) {
+    }
+
+    // Running state of one application while the file is validated
+    private static final class ApplicationState {
+        final LoanApplication application;
+        final ReportRollupService.ApplicationFacts before;
+        LoanApplicationStatus status;
+        long total;
+        long count;
+        long importedAmount;
+        List<DisbursementTransaction> imported = new ArrayList<>();
+
+        ApplicationState(LoanApplication application) {
+            this.application = application;
+            this.before = ReportRollupService.ApplicationFacts.of(application);
+            this.status = application.getStatus();
+        }
+    }
+
+    @Transactional
+    public DisbursementImportResponse importDisbursements(InputStream input, boolean json, boolean dryRun) {
+        long start = System.currentTimeMillis();
+        List<ImportRow> rows;
+        try {
+            rows = json ? readJson(input) : readCsv(input);
+        } catch (IOException e) {
+            log.warn("Could not read disbursement import file: {}", e.getMessage());
+            throw new AppException(ErrorCode.INVALID_IMPORT_FILE);
+        }
+
+        Map<Long, ApplicationState> applications = loadApplications(rows, !dryRun);
+        Map<String, Object[]> existingKeys = loadExistingKeys(rows);
+
+        List<DisbursementImportRowResponse> results = new ArrayList<>(rows.size());
+        List<DisbursementTransaction> accepted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (ImportRow row : rows) {
+            ErrorCode error = null;
+            String message = row.error();
+            DisbursementImportRowStatus status = dryRun ? DisbursementImportRowStatus.VALID
+                    : DisbursementImportRowStatus.IMPORTED;
+            ApplicationState state = applications.get(row.applicationId());
+
+            if (row.error() != null) {
+                error = ErrorCode.INVALID_IMPORT_ROW;
+            } else if (row.idempotencyKey() != null && existingKeys.containsKey(row.idempotencyKey())) {
+                // Re-uploaded row: skip it when it is the same disbursement, reject it otherwise
+                Object[] existing = existingKeys.get(row.idempotencyKey());
+                if (row.applicationId().equals(existing[1]) && row.amount().equals(existing[2])) {
+                    status = DisbursementImportRowStatus.SKIPPED;
+                } else {
+                    error = ErrorCode.IDEMPOTENCY_KEY_REUSED;
+                }
+            } else if (state == null) {
+                error = ErrorCode.LOAN_APPLICATION_NOT_FOUND;
+            } else if (state.status != LoanApplicationStatus.APPROVED
+                    && state.status != LoanApplicationStatus.PARTIALLY_DISBURSED) {
+                error = ErrorCode.LOAN_APPLICATION_NOT_APPROVED;
+            } else if (state.total + row.amount() > state.application.getRequestedAmount()) {
+                error = ErrorCode.DISBURSEMENT_AMOUNT_EXCEEDS_APPROVED;
+            } else {
+                DisbursementTransaction disbursement = DisbursementTransaction.builder()
+                        .applicationId(row.applicationId())
+                        .amount(row.amount())
+                        .transactionDate(row.transactionDate() != null ? row.transactionDate() : now)
+                        .notes(row.notes())
+                        .idempotencyKey(row.idempotencyKey())
+                        .createdAt(now)
+                        .build();
+                accepted.add(disbursement);
+                state.imported.add(disbursement);
+                state.total += row.amount();
+                state.count++;
+                state.importedAmount += row.amount();
+                state.status = state.total == state.application.getRequestedAmount()
+                        ? LoanApplicationStatus.FULLY_DISBURSED
+                        : LoanApplicationStatus.PARTIALLY_DISBURSED;
+                if (row.idempotencyKey() != null) {
+                    existingKeys.put(row.idempotencyKey(),
+                            new Object[] { row.idempotencyKey(), row.applicationId(), row.amount() });
+                }
+            }
+
+            results.add(DisbursementImportRowResponse.builder()
+                    .rowNumber(row.rowNumber())
+                    .applicationId(row.applicationId())
+                    .amount(row.amount())
+                    .status(error != null ? DisbursementImportRowStatus.REJECTED : status)
+                    .code(error != null ? error.getCode() : null)
+                    .message(error == null ? null : message != null ? message : error.getMessage())
+                    .build());
+        }
+
+        List<ApplicationState> changed = applications.values().stream()
+                .filter(state -> !state.imported.isEmpty())
+                .toList();
+        if (!dryRun && !accepted.isEmpty()) {
+            write(accepted, changed, now);
+        }
+
+        long skipped = results.stream().filter(r -> r.getStatus() == DisbursementImportRowStatus.SKIPPED).count();
+        long rejected = results.stream().filter(r -> r.getStatus() == DisbursementImportRowStatus.REJECTED).count();
+        long duration = System.currentTimeMillis() - start;
+        log.info("{} disbursement import: {} rows, {} accepted for {} applications, {} skipped, {} rejected in {} ms",
+                dryRun ? "Validated" : "Finished", rows.size(), accepted.size(), changed.size(), skipped, rejected,
+                duration);
+        return DisbursementImportResponse.builder()
+                .dryRun(dryRun)
+                .totalRows(rows.size())
+                .importedRows(accepted.size())
+                .skippedRows((int) skipped)
+                .rejectedRows((int) rejected)
+                .importedAmount(accepted.stream().mapToLong(DisbursementTransaction::getAmount).sum())
+                .updatedApplications(changed.size())
+                .durationMs(duration)
+                .rows(results)
+                .build();
+    }
+
+    private void write(List<DisbursementTransaction> accepted, List<ApplicationState> changed, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        try {
+            jdbcTemplate.batchUpdate(INSERT_DISBURSEMENT, accepted, properties.getBatchSize(), (ps, disbursement) -> {
+                ps.setLong(1, disbursement.getApplicationId());
+                ps.setLong(2, disbursement.getAmount());
+                ps.setTimestamp(3, Timestamp.valueOf(disbursement.getTransactionDate()));
+                ps.setString(4, disbursement.getNotes());
+                ps.setString(5, disbursement.getIdempotencyKey());
+                ps.setTimestamp(6, timestamp);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // An idempotency key from the file was committed concurrently by another request
+            throw new AppException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+        }
+        jdbcTemplate.batchUpdate(UPDATE_APPLICATION, changed, properties.getBatchSize(), (ps, state) -> {
+            ps.setString(1, state.status.name());
+            ps.setLong(2, state.total);
+            ps.setLong(3, state.count);
+            ps.setTimestamp(4, timestamp);
+            ps.setLong(5, state.application.getId());
+        });
+
+        // Same notification as a single disbursement, but one per application for the whole file
+        Long currentUserId = userService.getCurrentUserId();
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, changed, properties.getBatchSize(), (ps, state) -> {
+            ps.setLong(1, currentUserId);
+            ps.setLong(2, state.application.getId());
+            ps.setString(3, notificationMessage(state));
+            ps.setBoolean(4, false);
+            ps.setString(5, NotificationType.SYSTEM.name());
+            ps.setTimestamp(6, timestamp);
+        });
+        changed.forEach(this::sendEmail);
+
+        Map<Long, LoanApplication> applicationsById = new HashMap<>();
+        List<ReportRollupService.ApplicationFacts> before = new ArrayList<>(changed.size());
+        List<ReportRollupService.ApplicationFacts> after = new ArrayList<>(changed.size());
+        for (ApplicationState state : changed) {
+            applicationsById.put(state.application.getId(), state.application);
+            before.add(state.before);
+            after.add(new ReportRollupService.ApplicationFacts(state.status, state.before.productId(),
+                    state.before.requestedAmount(), state.before.createdHour()));
+        }
+        reportRollupService.disbursementsCreated(accepted, applicationsById);
+        reportRollupService.applicationsChanged(before, after);
+        eventPublisher.publishEvent(new ReportDataChangedEvent(null, "disbursements imported"));
+    }
+
+    private Map<Long, ApplicationState> loadApplications(List<ImportRow> rows, boolean lock) {
+        List<Long> ids = rows.stream()
+                .map(ImportRow::applicationId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        Map<Long, ApplicationState> states = new HashMap<>();
+        List<Long> missingTotals = new ArrayList<>();
+        for (List<Long> chunk : chunks(ids)) {
+            if (lock) {
+                loanApplicationRepository.findAllByIdInForUpdate(chunk);
+            }
+            // Users and products are needed for the emails, the locked entities are reused
+            for (LoanApplication application : loanApplicationRepository.findAllWithUserAndProductByIdIn(chunk)) {
+                ApplicationState state = new ApplicationState(application);
+                if (application.getDisbursedTotal() == null || application.getDisbursementCount() == null) {
+                    missingTotals.add(application.getId());
+                } else {
+                    state.total = application.getDisbursedTotal();
+                    state.count = application.getDisbursementCount();
+                }
+                states.put(application.getId(), state);
+            }
+        }
+        // Applications not backfilled by DisbursementTotalsReconciler yet
+        for (List<Long> chunk : chunks(missingTotals)) {
+            for (Object[] row : disbursementTransactionRepository.getDisbursementTotals(chunk)) {
+                ApplicationState state = states.get((Long) row[0]);
+                state.total = ((Number) row[1]).longValue();
+                state.count = ((Number) row[2]).longValue();
+            }
+        }
+        return states;
+    }
+
+    private Map<String, Object[]> loadExistingKeys(List<ImportRow> rows) {
+        List<String> keys = rows.stream()
+                .map(ImportRow::idempotencyKey)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<String, Object[]> existing = new HashMap<>();
+        for (List<String> chunk : chunks(keys)) {
+            disbursementTransactionRepository.findByIdempotencyKeyIn(chunk)
+                    .forEach(row -> existing.put((String) row[0], row));
+        }
+        return existing;
+    }
+
+    private String notificationMessage(ApplicationState state) {
+        if (state.status == LoanApplicationStatus.FULLY_DISBURSED) {
+            return "Your loan has been fully disbursed. Total amount: " + state.total;
+        }
+        return "Disbursement of " + state.importedAmount + " has been processed. Remaining: "
+                + (state.application.getRequestedAmount() - state.total);
+    }
+
+    // Queued in the outbox as part of the import transaction, a failure rolls back the whole import
+    private void sendEmail(ApplicationState state) {
+        LoanApplication application = state.application;
+        DisbursementTransaction last = state.imported.get(state.imported.size() - 1);
+        String subject = state.status == LoanApplicationStatus.FULLY_DISBURSED
+                ? "Hoàn tất giải ngân - LoanConv"
+                : "Thông báo giải ngân từng phần - LoanConv";
+        emailService.sendDisbursementEmail(
+                application.getUser().getEmail(),
+                application.getUser().getFullName(),
+                subject,
+                (double) state.importedAmount,
+                (double) state.total,
+                application.getRequestedAmount().doubleValue(),
+                last.getTransactionDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")),
+                application.getId(),
+                state.imported.size() == 1 ? last.getNotes() : null);
+    }
+
+    private List<ImportRow> readCsv(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            throw new AppException(ErrorCode.INVALID_IMPORT_FILE);
+        }
+        // Spreadsheet tools prefix UTF-8 files with a BOM
+        header.set(0, header.get(0).replace("\uFEFF", ""));
+        List<String> columns = header.stream().map(this::normalizeColumn).toList();
+        if (!columns.contains("applicationid") || !columns.contains("amount")) {
+            throw new AppException(ErrorCode.INVALID_IMPORT_FILE);
+        }
+
+        List<ImportRow> rows = new ArrayList<>();
+        List<String> record;
+        while ((record = readCsvRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            checkRowLimit(rows.size());
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.size() && i < record.size(); i++) {
+                fields.put(columns.get(i), record.get(i));
+            }
+            rows.add(toImportRow(rows.size() + 1, fields));
+        }
+        return rows;
+    }
+
+    // One RFC 4180 record, quoted fields may contain commas, quotes and line breaks
+    private List<String> readCsvRecord(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private List<ImportRow> readJson(InputStream input) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new AppException(ErrorCode.INVALID_IMPORT_FILE);
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new AppException(ErrorCode.INVALID_IMPORT_FILE);
+                }
+                checkRowLimit(rows.size());
+                // Elements are read one at a time, the file is never held as a whole tree
+                JsonNode node = objectMapper.readTree(parser);
+                Map<String, String> fields = null;
+                if (node.isObject()) {
+                    fields = new HashMap<>();
+                    for (Map.Entry<String, JsonNode> entry : node.properties()) {
+                        fields.put(normalizeColumn(entry.getKey()),
+                                entry.getValue().isNull() ? null : entry.getValue().asText());
+                    }
+                }
+                rows.add(toImportRow(rows.size() + 1, fields));
+            }
+        }
+        return rows;
+    }
+
+    private ImportRow toImportRow(int rowNumber, Map<String, String> fields) {
+        if (fields == null) {
+            return new ImportRow(rowNumber, null, null, null, null, null, "Row must be an object");
+        }
+        Long applicationId = null;
+        Long amount = null;
+        try {
+            applicationId = parseLong(fields.get("applicationid"), "applicationId");
+            amount = parseLong(fields.get("amount"), "amount");
+            if (amount < 1) {
+                throw new IllegalArgumentException("Amount must be greater than 0");
+            }
+            LocalDateTime transactionDate = parseDate(fields.get("transactiondate"));
+            String notes = blankToNull(fields.get("notes"));
+            if (notes != null && notes.length() > MAX_NOTES_LENGTH) {
+                throw new IllegalArgumentException("Notes cannot exceed 500 characters");
+            }
+            String idempotencyKey = blankToNull(fields.get("idempotencykey"));
+            if (idempotencyKey != null
+                    && idempotencyKey.length() > DisbursementTransaction.MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new IllegalArgumentException(ErrorCode.INVALID_IDEMPOTENCY_KEY.getMessage());
+            }
+            return new ImportRow(rowNumber, applicationId, amount, transactionDate, notes, idempotencyKey, null);
+        } catch (IllegalArgumentException e) {
+            return new ImportRow(rowNumber, applicationId, amount, null, null, null, e.getMessage());
+        }
+    }
+
+    private Long parseLong(String value, String name) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number");
+        }
+    }
+
+    // ISO date-time, or an ISO date meaning the start of that day
+    private LocalDateTime parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim();
+        try {
+            return text.length() == 10 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("transactionDate must be an ISO date or date-time");
+        }
+    }
+
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // applicationId, application_id and "Application Id" all name the same column
+    private String normalizeColumn(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", "");
+    }
+
+    private void checkRowLimit(int rows) {
+        if (rows >= properties.getMaxRows()) {
+            throw new AppException(ErrorCode.IMPORT_TOO_MANY_ROWS);
+        }
+    }
+
+    private <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += properties.getBatchSize()) {
+            chunks.add(values.subList(i, Math.min(i + properties.getBatchSize(), values.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,163 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.response.DisbursementBalanceResponse;
+import com.vdt_project1.loan_management.entity.DisbursementBalanceSnapshot;
+import com.vdt_project1.loan_management.exception.AppException;
+import com.vdt_project1.loan_management.exception.ErrorCode;
+import com.vdt_project1.loan_management.repository.DisbursementBalanceSnapshotRepository;
+import com.vdt_project1.loan_management.repository.DisbursementTransactionRepository;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Point-in-time balances over the append-only disbursement ledger.
+ *
+ * A balance at time T starts from the latest snapshot taken as of T or earlier
+ * and adds the ledger entries the snapshot does not cover: entries dated after
+ * the snapshot up to T, and entries dated up to the snapshot but written after
+ * it (back-dated disbursements). Without a snapshot the whole history of the
+ * application is summed.
+ *
+ * Snapshots are taken periodically for applications with new entries. Each
+ * one is computed under the application row lock that every ledger write also
+ * takes, so no entry can commit between reading the last transaction id and
+ * summing the balance.
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class DisbursementLedgerService {
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    DisbursementTransactionRepository disbursementTransactionRepository;
+    DisbursementBalanceSnapshotRepository snapshotRepository;
+    LoanApplicationRepository loanApplicationRepository;
+    TransactionTemplate transactionTemplate;
+    Counter snapshotCounter;
+
+    // Entries created shortly before the previous run may have committed after it
+    @NonFinal
+    @Value("${app.ledger.snapshot-lookback:600000}")
+    long snapshotLookbackMillis;
+
+    public DisbursementLedgerService(DisbursementTransactionRepository disbursementTransactionRepository,
+            DisbursementBalanceSnapshotRepository snapshotRepository,
+            LoanApplicationRepository loanApplicationRepository,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.disbursementTransactionRepository = disbursementTransactionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotCounter = Counter.builder("disbursement_ledger.snapshots")
+                .description("Disbursement balance snapshots taken")
+                .register(meterRegistry);
+    }
+
+    // Sum of a snapshot and the entries read on top of it
+    private record Balance(long amount, long count, long tailEntries) {
+    }
+
+    @Transactional(readOnly = true)
+    public DisbursementBalanceResponse getBalanceAt(Long applicationId, LocalDateTime at) {
+        if (!loanApplicationRepository.existsById(applicationId)) {
+            throw new AppException(ErrorCode.LOAN_APPLICATION_NOT_FOUND);
+        }
+        LocalDateTime balanceAt = at != null ? at : LocalDateTime.now();
+        DisbursementBalanceSnapshot snapshot = snapshotRepository
+                .findFirstByApplicationIdAndAsOfLessThanEqualOrderByAsOfDescIdDesc(applicationId, balanceAt)
+                .orElse(null);
+        Balance balance = balanceAt(applicationId, balanceAt, snapshot);
+        return DisbursementBalanceResponse.builder()
+                .applicationId(applicationId)
+                .at(balanceAt)
+                .balance(balance.amount())
+                .disbursementCount(balance.count())
+                .snapshotAsOf(snapshot != null ? snapshot.getAsOf() : null)
+                .tailEntries(balance.tailEntries())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${app.ledger.snapshot-interval:3600000}",
+            initialDelayString = "${app.ledger.snapshot-initial-delay:60000}")
+    public void takeSnapshots() {
+        long start = System.currentTimeMillis();
+        LocalDateTime since = snapshotRepository.findLastSnapshotTime()
+                .map(last -> last.minus(Duration.ofMillis(snapshotLookbackMillis)))
+                .orElse(LEDGER_START);
+        List<Long> applicationIds = disbursementTransactionRepository.findApplicationIdsWrittenSince(since);
+
+        long taken = 0;
+        for (Long applicationId : applicationIds) {
+            Boolean created = transactionTemplate.execute(status -> takeSnapshot(applicationId));
+            if (Boolean.TRUE.equals(created)) {
+                taken++;
+                snapshotCounter.increment();
+            }
+        }
+        if (taken > 0) {
+            log.info("Took {} disbursement balance snapshots out of {} candidate applications in {} ms", taken,
+                    applicationIds.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private boolean takeSnapshot(Long applicationId) {
+        // Disbursement writes lock the same row, the ledger of this application is stable until commit
+        if (loanApplicationRepository.findByIdForUpdate(applicationId).isEmpty()) {
+            return false;
+        }
+        LocalDateTime asOf = LocalDateTime.now();
+        Long lastTransactionId = disbursementTransactionRepository.findLastTransactionId(applicationId);
+        DisbursementBalanceSnapshot previous = snapshotRepository
+                .findFirstByApplicationIdAndAsOfLessThanEqualOrderByAsOfDescIdDesc(applicationId, asOf)
+                .orElse(null);
+        if (previous != null && previous.getLastTransactionId().equals(lastTransactionId)) {
+            return false;
+        }
+        Balance balance = balanceAt(applicationId, asOf, previous);
+        snapshotRepository.save(DisbursementBalanceSnapshot.builder()
+                .applicationId(applicationId)
+                .asOf(asOf)
+                .lastTransactionId(lastTransactionId)
+                .balance(balance.amount())
+                .disbursementCount(balance.count())
+                .createdAt(LocalDateTime.now())
+                .build());
+        return true;
+    }
+
+    private Balance balanceAt(Long applicationId, LocalDateTime at, DisbursementBalanceSnapshot snapshot) {
+        if (snapshot == null) {
+            Object[] all = single(disbursementTransactionRepository.sumDatedBetween(applicationId, LEDGER_START, at));
+            return new Balance(number(all[0]), number(all[1]), number(all[2]));
+        }
+        Object[] dated = single(disbursementTransactionRepository.sumDatedBetween(applicationId,
+                snapshot.getAsOf(), at));
+        Object[] backDated = single(disbursementTransactionRepository.sumWrittenAfter(applicationId,
+                snapshot.getLastTransactionId(), snapshot.getAsOf()));
+        return new Balance(snapshot.getBalance() + number(dated[0]) + number(backDated[0]),
+                snapshot.getDisbursementCount() + number(dated[1]) + number(backDated[1]),
+                number(dated[2]) + number(backDated[2]));
+    }
+
+    private Object[] single(List<Object[]> rows) {
+        return rows.get(0);
+    }
+
+    private long number(Object value) {
+        return ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,117 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.repository.DisbursementTransactionRepository;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps loan_applications.disbursed_total and disbursement_count consistent
+ * with disbursement_transactions.
+ *
+ * Applications are compared against their transactions in id order, one batch
+ * per query. A mismatch found by the scan may just be a disbursement committing
+ * concurrently, so each candidate is checked again under the application row
+ * lock that disbursement writes also take, and only corrected if it still
+ * differs. The first run also backfills applications created before the
+ * columns existed.
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class DisbursementTotalsReconciler {
+    LoanApplicationRepository loanApplicationRepository;
+    DisbursementTransactionRepository disbursementTransactionRepository;
+    TransactionTemplate transactionTemplate;
+    Counter correctedCounter;
+
+    @NonFinal
+    @Value("${app.disbursement-totals.batch-size:500}")
+    int batchSize;
+
+    public DisbursementTotalsReconciler(LoanApplicationRepository loanApplicationRepository,
+            DisbursementTransactionRepository disbursementTransactionRepository,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.disbursementTransactionRepository = disbursementTransactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.correctedCounter = Counter.builder("disbursement_totals.corrected")
+                .description("Loan applications whose disbursement totals were backfilled or corrected")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.disbursement-totals.reconcile-interval:3600000}",
+            initialDelayString = "${app.disbursement-totals.initial-delay:30000}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        long checked = 0;
+        long corrected = 0;
+        Long afterId = 0L;
+
+        while (true) {
+            List<Object[]> rows = loanApplicationRepository.findDisbursementTotalsAfter(afterId,
+                    PageRequest.of(0, batchSize));
+            for (Object[] row : rows) {
+                Long applicationId = (Long) row[0];
+                if (!matches(row[1], row[3]) || !matches(row[2], row[4])) {
+                    Boolean fixed = transactionTemplate.execute(status -> correct(applicationId));
+                    if (Boolean.TRUE.equals(fixed)) {
+                        corrected++;
+                        correctedCounter.increment();
+                    }
+                }
+                afterId = applicationId;
+            }
+            checked += rows.size();
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (corrected > 0) {
+            log.warn("Corrected disbursement totals of {} out of {} loan applications in {} ms", corrected,
+                    checked, System.currentTimeMillis() - start);
+        } else {
+            log.debug("Disbursement totals of {} loan applications are consistent", checked);
+        }
+    }
+
+    private boolean correct(Long applicationId) {
+        LoanApplication application = loanApplicationRepository.findByIdForUpdate(applicationId).orElse(null);
+        if (application == null) {
+            return false;
+        }
+        Long total = disbursementTransactionRepository.getTotalDisbursedAmount(applicationId);
+        Long count = disbursementTransactionRepository.getNetDisbursementCount(applicationId);
+        if (Objects.equals(application.getDisbursedTotal(), total)
+                && Objects.equals(application.getDisbursementCount(), count)) {
+            return false;
+        }
+        if (application.getDisbursedTotal() != null) {
+            log.warn("Loan application {} had disbursed total {} ({} transactions), actual {} ({} transactions)",
+                    applicationId, application.getDisbursedTotal(), application.getDisbursementCount(), total,
+                    count);
+        }
+        application.setDisbursedTotal(total);
+        application.setDisbursementCount(count);
+        loanApplicationRepository.save(application);
+        return true;
+    }
+
+    private boolean matches(Object stored, Object actual) {
+        return stored != null && ((Number) stored).longValue() == ((Number) actual).longValue();
+    }
+}
@@ -6,6 +6,7 @@ import com.vdt_project1.loan_management.dto.response.*;
 import com.vdt_project1.loan_management.entity.DisbursementTransaction;
 import com.vdt_project1.loan_management.entity.LoanApplication;
 import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.event.ReportDataChangedEvent;
 import com.vdt_project1.loan_management.exception.AppException;
 import com.vdt_project1.loan_management.exception.ErrorCode;
 import com.vdt_project1.loan_management.repository.DisbursementTransactionRepository;
@@ -13,6 +14,8 @@ import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,6 +23,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -32,20 +36,42 @@ public class DisbursementTransactionService {
     NotificationService notificationService;
     UserService userService;
     EmailService emailService;
+    ReportRollupService reportRollupService;
+    ApplicationEventPublisher eventPublisher;
 
     @Transactional
-    public DisbursementResponse createDisbursement(DisbursementRequest request) {
+    public DisbursementResponse createDisbursement(DisbursementRequest request, String idempotencyKey) {
         log.info("Creating disbursement for application ID: {}", request.getApplicationId());
-        // Validate loan application exists and is APPROVED or PARTIALLY_DISBURSED
-        LoanApplication application = findLoanApplicationById(request.getApplicationId());
+        // A blank header carries no key, the same as a blank idempotencyKey column in an import
+        if (idempotencyKey != null) {
+            idempotencyKey = idempotencyKey.isBlank() ? null : idempotencyKey.trim();
+        }
+        if (idempotencyKey != null && idempotencyKey.length() > DisbursementTransaction.MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new AppException(ErrorCode.INVALID_IDEMPOTENCY_KEY);
+        }
 
+        // Lock the application row, concurrent disbursements for the same application wait here
+        LoanApplication application = loanApplicationRepository.findByIdForUpdate(request.getApplicationId())
+                .orElseThrow(() -> new AppException(ErrorCode.LOAN_APPLICATION_NOT_FOUND));
+
+        // A retry of a request that has already been committed returns the original transaction
+        if (idempotencyKey != null) {
+            Optional<DisbursementTransaction> existing = disbursementTransactionRepository
+                    .findByIdempotencyKey(idempotencyKey);
+            if (existing.isPresent()) {
+                return replay(existing.get(), request);
+            }
+        }
+
+        // Validate loan application is APPROVED or PARTIALLY_DISBURSED
         if (application.getStatus() != LoanApplicationStatus.APPROVED &&
                 application.getStatus() != LoanApplicationStatus.PARTIALLY_DISBURSED) {
             throw new AppException(ErrorCode.LOAN_APPLICATION_NOT_APPROVED);
         }
 
-        // Validate disbursement amount
-        Long totalDisbursed = getTotalDisbursedAmount(request.getApplicationId());
+        // Validate disbursement amount against the running total read under the lock
+        ensureDisbursementTotals(application);
+        Long totalDisbursed = application.getDisbursedTotal();
         Long newTotal = totalDisbursed + request.getAmount();
 
         if (newTotal > application.getRequestedAmount()) {
@@ -59,43 +85,46 @@ public class DisbursementTransactionService {
                 .transactionDate(
                         request.getTransactionDate() != null ? request.getTransactionDate() : LocalDateTime.now())
                 .notes(request.getNotes())
+                .idempotencyKey(idempotencyKey)
                 .build();
-        DisbursementTransaction saved = disbursementTransactionRepository.save(disbursement);
+        DisbursementTransaction saved;
+        try {
+            saved = disbursementTransactionRepository.save(disbursement);
+        } catch (DataIntegrityViolationException e) {
+            // Same key used concurrently for another application
+            throw new AppException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+        }
+        ReportRollupService.ApplicationFacts before = ReportRollupService.ApplicationFacts.of(application);
+        application.setDisbursedTotal(newTotal);
+        application.setDisbursementCount(application.getDisbursementCount() + 1);
 
         // Calculate disbursement totals for email
         Long totalDisbursedAfter = newTotal;
-        // Send email notification
-        try {
-            String userEmail = application.getUser().getEmail();
-            String userName = application.getUser().getFullName();
-            boolean willBeFullyDisbursed = newTotal.equals(application.getRequestedAmount());
-            String subject = willBeFullyDisbursed ? "Hoàn tất giải ngân - LoanConv"
-                    : "Thông báo giải ngân từng phần - LoanConv";
-
-            String formattedDate = saved.getTransactionDate().format(
-                    java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
-
-            emailService.sendDisbursementEmail(
-                    userEmail,
-                    userName,
-                    subject,
-                    saved.getAmount().doubleValue(),
-                    totalDisbursedAfter.doubleValue(),
-                    application.getRequestedAmount().doubleValue(),
-                    formattedDate,
-                    application.getId(),
-                    saved.getNotes());
-
-            log.info("Disbursement email sent successfully to: {}", userEmail);
-        } catch (Exception e) {
-            log.error("Failed to send disbursement email: {}", e.getMessage());
-            // Don't fail the transaction if email fails
-        }
+        // Queued in the outbox as part of this transaction, a failure rolls back the disbursement too
+        String userEmail = application.getUser().getEmail();
+        String userName = application.getUser().getFullName();
+        boolean willBeFullyDisbursed = newTotal.equals(application.getRequestedAmount());
+        String subject = willBeFullyDisbursed ? "Hoàn tất giải ngân - LoanConv"
+                : "Thông báo giải ngân từng phần - LoanConv";
+
+        String formattedDate = saved.getTransactionDate().format(
+                java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
+
+        emailService.sendDisbursementEmail(
+                userEmail,
+                userName,
+                subject,
+                saved.getAmount().doubleValue(),
+                totalDisbursedAfter.doubleValue(),
+                application.getRequestedAmount().doubleValue(),
+                formattedDate,
+                application.getId(),
+                saved.getNotes());
+        log.info("Disbursement email queued for: {}", userEmail);
+
         // Check if fully disbursed and update loan application status
         if (newTotal.equals(application.getRequestedAmount())) {
             application.setStatus(LoanApplicationStatus.FULLY_DISBURSED);
-            application.setUpdatedAt(LocalDateTime.now());
-            loanApplicationRepository.save(application);
 
             // Send notification for full disbursement
             NotificationRequest notificationRequest = NotificationRequest.builder()
@@ -109,8 +138,6 @@ public class DisbursementTransactionService {
             // Update status to partially disbursed if not already
             if (application.getStatus() == LoanApplicationStatus.APPROVED) {
                 application.setStatus(LoanApplicationStatus.PARTIALLY_DISBURSED);
-                application.setUpdatedAt(LocalDateTime.now());
-                loanApplicationRepository.save(application);
             }
 
             // Send notification for partial disbursement
@@ -124,6 +151,13 @@ public class DisbursementTransactionService {
             notificationService.createNotification(notificationRequest);
         }
 
+        application.setUpdatedAt(LocalDateTime.now());
+        loanApplicationRepository.save(application);
+
+        // Shared rollup rows are updated last so their row locks are held only until commit
+        reportRollupService.disbursementCreated(saved, application);
+        reportRollupService.applicationChanged(before, application);
+        eventPublisher.publishEvent(new ReportDataChangedEvent(application.getId(), "disbursement created"));
         log.info("Disbursement created successfully with ID: {}", saved.getTransactionId());
         return toResponse(saved);
     }
@@ -153,28 +187,28 @@ public class DisbursementTransactionService {
     @Transactional(readOnly = true)
     public Page<DisbursementResponse> getMyDisbursements(Pageable pageable) {
         log.info("Fetching disbursements for current user");
-        UserResponse userResponse = userService.getMyProfile();
-        return disbursementTransactionRepository.findByUserIdOrderByTransactionDateDesc(userResponse.getId(), pageable)
+        Long userId = userService.getCurrentUserId();
+        return disbursementTransactionRepository.findByUserIdOrderByTransactionDateDesc(userId, pageable)
                 .map(this::toResponse);
     }
 
+    // Reads the running totals from the application row, only the latest transactions are listed
     @Transactional(readOnly = true)
     public DisbursementSummaryResponse getDisbursementSummary(Long applicationId) {
         log.info("Fetching disbursement summary for application ID: {}", applicationId);
 
-        LoanApplication application = findLoanApplicationById(applicationId);
+        DisbursementTotals totals = findDisbursementTotals(applicationId);
         List<DisbursementTransaction> transactions = disbursementTransactionRepository
-                .findByApplicationIdOrderByTransactionDateDesc(applicationId);
+                .findTop10ByApplicationIdOrderByTransactionDateDesc(applicationId);
 
-        Long totalDisbursed = getTotalDisbursedAmount(applicationId);
-        Long remainingAmount = application.getRequestedAmount() - totalDisbursed;
+        Long remainingAmount = totals.requestedAmount() - totals.total();
 
         return DisbursementSummaryResponse.builder()
                 .applicationId(applicationId)
-                .totalDisbursedAmount(totalDisbursed)
-                .requestedAmount(application.getRequestedAmount())
+                .totalDisbursedAmount(totals.total())
+                .requestedAmount(totals.requestedAmount())
                 .remainingAmount(remainingAmount)
-                .transactionCount(transactions.size())
+                .transactionCount(Math.toIntExact(totals.count()))
                 .isFullyDisbursed(remainingAmount == 0)
                 .transactions(transactions.stream()
                         .map(this::toResponse)
@@ -184,63 +218,126 @@ public class DisbursementTransactionService {
 
     @Transactional(readOnly = true)
     public Long getTotalDisbursedAmount(Long applicationId) {
-        return disbursementTransactionRepository.getTotalDisbursedAmount(applicationId);
+        return findDisbursementTotals(applicationId).total();
     }
 
     @Transactional(readOnly = true)
     public boolean isFullyDisbursed(Long applicationId) {
-        LoanApplication application = findLoanApplicationById(applicationId);
-        Long totalDisbursed = getTotalDisbursedAmount(applicationId);
-        return totalDisbursed.equals(application.getRequestedAmount());
+        DisbursementTotals totals = findDisbursementTotals(applicationId);
+        return totals.total().equals(totals.requestedAmount());
     }
 
+    /**
+     * Cancels a disbursement by appending a reversal entry with the negated
+     * amount. The original entry stays in the ledger unchanged.
+     */
     @Transactional
-    public void deleteDisbursement(Long transactionId) {
-        log.info("Deleting disbursement with ID: {}", transactionId);
-        DisbursementTransaction disbursement = disbursementTransactionRepository.findById(transactionId)
+    public DisbursementResponse reverseDisbursement(Long transactionId) {
+        log.info("Reversing disbursement with ID: {}", transactionId);
+        DisbursementTransaction original = disbursementTransactionRepository.findById(transactionId)
                 .orElseThrow(() -> new AppException(ErrorCode.DISBURSEMENT_NOT_FOUND));
+        if (original.isReversal()) {
+            throw new AppException(ErrorCode.DISBURSEMENT_NOT_REVERSIBLE);
+        }
 
-        // Check if loan application status needs to be reverted
-        Long applicationId = disbursement.getApplicationId();
-        LoanApplication application = findLoanApplicationById(applicationId);
+        Long applicationId = original.getApplicationId();
+        LoanApplication application = loanApplicationRepository.findByIdForUpdate(applicationId)
+                .orElseThrow(() -> new AppException(ErrorCode.LOAN_APPLICATION_NOT_FOUND));
+        // A concurrent reversal of the same entry may have committed while we waited for the lock
+        if (disbursementTransactionRepository.existsByReversalOf(transactionId)) {
+            throw new AppException(ErrorCode.DISBURSEMENT_ALREADY_REVERSED);
+        }
 
-        // Calculate total after deletion
-        Long totalAfterDeletion = getTotalDisbursedAmount(applicationId) - disbursement.getAmount();
+        // Calculate total after the reversal
+        ensureDisbursementTotals(application);
+        Long totalAfterReversal = application.getDisbursedTotal() - original.getAmount();
+        application.setDisbursedTotal(totalAfterReversal);
+        application.setDisbursementCount(application.getDisbursementCount() - 1);
 
         // Update status based on remaining amount
+        ReportRollupService.ApplicationFacts before = ReportRollupService.ApplicationFacts.of(application);
         if (application.getStatus() == LoanApplicationStatus.FULLY_DISBURSED ||
                 application.getStatus() == LoanApplicationStatus.PARTIALLY_DISBURSED) {
-
-            if (totalAfterDeletion == 0) {
+            if (totalAfterReversal == 0) {
                 // No disbursements left, revert to APPROVED
                 application.setStatus(LoanApplicationStatus.APPROVED);
-            } else if (totalAfterDeletion < application.getRequestedAmount()) {
+            } else if (totalAfterReversal < application.getRequestedAmount()) {
                 // Still has disbursements but not fully disbursed
                 application.setStatus(LoanApplicationStatus.PARTIALLY_DISBURSED);
-            } else if (totalAfterDeletion.equals(application.getRequestedAmount())) {
-                // Still fully disbursed after deletion
+            } else if (totalAfterReversal.equals(application.getRequestedAmount())) {
+                // Still fully disbursed after the reversal
                 application.setStatus(LoanApplicationStatus.FULLY_DISBURSED);
             }
+        }
+        application.setUpdatedAt(LocalDateTime.now());
+        loanApplicationRepository.save(application);
 
-            application.setUpdatedAt(LocalDateTime.now());
-            loanApplicationRepository.save(application);
+        DisbursementTransaction reversal;
+        try {
+            reversal = disbursementTransactionRepository.save(DisbursementTransaction.builder()
+                    .applicationId(applicationId)
+                    .amount(-original.getAmount())
+                    .transactionDate(LocalDateTime.now())
+                    .notes("Reversal of disbursement #" + transactionId)
+                    .reversalOf(transactionId)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new AppException(ErrorCode.DISBURSEMENT_ALREADY_REVERSED);
         }
 
-        disbursementTransactionRepository.delete(disbursement);
-        log.info("Disbursement deleted successfully");
+        reportRollupService.disbursementCreated(reversal, application);
+        reportRollupService.applicationChanged(before, application);
+        eventPublisher.publishEvent(new ReportDataChangedEvent(applicationId, "disbursement reversed"));
+        log.info("Disbursement {} reversed by entry {}", transactionId, reversal.getTransactionId());
+        return toResponse(reversal);
     }
 
     @Transactional(readOnly = true)
     public boolean isUserOwnerOfApplication(Long applicationId) {
         try {
-            UserResponse userResponse = userService.getMyProfile();
+            Long userId = userService.getCurrentUserId();
             LoanApplication application = findLoanApplicationById(applicationId);
-            return application.getUser().getId().equals(userResponse.getId());
+            return application.getUser().getId().equals(userId);
         } catch (Exception e) {
             return false;
         }
     }
 
+    private record DisbursementTotals(Long requestedAmount, Long total, Long count) {
+    }
+
+    private DisbursementTotals findDisbursementTotals(Long applicationId) {
+        Object[] row = loanApplicationRepository.findDisbursementTotals(applicationId).stream()
+                .findFirst()
+                .orElseThrow(() -> new AppException(ErrorCode.LOAN_APPLICATION_NOT_FOUND));
+        if (row[1] == null || row[2] == null) {
+            // Not backfilled yet, see DisbursementTotalsReconciler
+            return new DisbursementTotals((Long) row[0],
+                    disbursementTransactionRepository.getTotalDisbursedAmount(applicationId),
+                    disbursementTransactionRepository.getNetDisbursementCount(applicationId));
+        }
+        return new DisbursementTotals((Long) row[0], (Long) row[1], (Long) row[2]);
+    }
+
+    // Applications not backfilled yet get their totals computed once, the caller holds the row lock
+    private void ensureDisbursementTotals(LoanApplication application) {
+        if (application.getDisbursedTotal() == null || application.getDisbursementCount() == null) {
+            application.setDisbursedTotal(
+                    disbursementTransactionRepository.getTotalDisbursedAmount(application.getId()));
+            application.setDisbursementCount(
+                    disbursementTransactionRepository.getNetDisbursementCount(application.getId()));
+        }
+    }
+
+    private DisbursementResponse replay(DisbursementTransaction existing, DisbursementRequest request) {
+        if (!existing.getApplicationId().equals(request.getApplicationId())
+                || !existing.getAmount().equals(request.getAmount())) {
+            throw new AppException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+        }
+        log.info("Idempotent replay of disbursement ID: {}", existing.getTransactionId());
+        return toResponse(existing);
+    }
+
     private LoanApplication findLoanApplicationById(Long id) {
         return loanApplicationRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.LOAN_APPLICATION_NOT_FOUND));
@@ -268,6 +365,7 @@ public class DisbursementTransactionService {
                 .amount(disbursement.getAmount())
                 .transactionDate(disbursement.getTransactionDate())
                 .notes(disbursement.getNotes())
+                .reversalOf(disbursement.getReversalOf())
                 .createdAt(disbursement.getCreatedAt())
                 .loanApplication(loanAppDto)
                 .build();
@@ -0,0 +1,325 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.configuration.EmailCampaignProperties;
+import com.vdt_project1.loan_management.dto.request.EmailCampaignRequest;
+import com.vdt_project1.loan_management.dto.response.EmailCampaignResponse;
+import com.vdt_project1.loan_management.entity.DisbursementTransaction;
+import com.vdt_project1.loan_management.entity.EmailCampaign;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.enums.EmailCampaignStatus;
+import com.vdt_project1.loan_management.enums.EmailOutboxStatus;
+import com.vdt_project1.loan_management.exception.AppException;
+import com.vdt_project1.loan_management.exception.ErrorCode;
+import com.vdt_project1.loan_management.repository.DisbursementTransactionRepository;
+import com.vdt_project1.loan_management.repository.EmailCampaignRepository;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk notification waves. Recipients are resolved from loan applications,
+ * rendered in parallel on a bounded pool and written to the email outbox in
+ * chunks; delivery then goes through the normal outbox dispatcher at campaign
+ * priority, so transactional emails are not held up.
+ *
+ * Campaigns are QUEUED until the in-process coordinator picks them up, then
+ * RUNNING. A restart loses both, and nothing can pick them up again: the
+ * recipient list is not persisted and re-running a page would queue
+ * duplicates. The stale check refreshes the campaigns this instance still
+ * holds, so a campaign that has not reported progress for
+ * app.mail.campaign.stale-after was abandoned and is marked FAILED. Every
+ * status change is conditional on the current status, so a FAILED campaign
+ * is never run or completed afterwards.
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class EmailCampaignService {
+    private static final Set<String> SUPPORTED_TEMPLATES = Set.of("application-result-template",
+            "disburse-template");
+    private static final Set<EmailCampaignStatus> ACTIVE_STATUSES = EnumSet.of(EmailCampaignStatus.QUEUED,
+            EmailCampaignStatus.RUNNING);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    EmailCampaignRepository emailCampaignRepository;
+    LoanApplicationRepository loanApplicationRepository;
+    DisbursementTransactionRepository disbursementTransactionRepository;
+    LoanApplicationService loanApplicationService;
+    EmailService emailService;
+    EmailOutboxService emailOutboxService;
+    EmailTemplateRenderer emailTemplateRenderer;
+    EmailCampaignProperties properties;
+    ExecutorService coordinator;
+    ThreadPoolExecutor renderPool;
+    Set<Long> heldCampaigns = ConcurrentHashMap.newKeySet();
+
+    public EmailCampaignService(EmailCampaignRepository emailCampaignRepository,
+            LoanApplicationRepository loanApplicationRepository,
+            DisbursementTransactionRepository disbursementTransactionRepository,
+            LoanApplicationService loanApplicationService, EmailService emailService,
+            EmailOutboxService emailOutboxService, EmailTemplateRenderer emailTemplateRenderer,
+            EmailCampaignProperties properties) {
+        this.emailCampaignRepository = emailCampaignRepository;
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.disbursementTransactionRepository = disbursementTransactionRepository;
+        this.loanApplicationService = loanApplicationService;
+        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
+        this.emailTemplateRenderer = emailTemplateRenderer;
+        this.properties = properties;
+
+        // Campaigns run one after another; each one fans out on the render pool
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-campaign");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded queue with caller-runs: when workers fall behind the coordinator renders too instead of piling up
+        this.renderPool = new ThreadPoolExecutor(
+                properties.getRenderThreads(), properties.getRenderThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getRenderThreads() * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "email-campaign-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public EmailCampaignResponse startCampaign(EmailCampaignRequest request) {
+        if (!SUPPORTED_TEMPLATES.contains(request.getTemplateName())) {
+            throw new AppException(ErrorCode.INVALID_EMAIL_TEMPLATE);
+        }
+        List<Long> applicationIds = resolveRecipients(request);
+        if (applicationIds.isEmpty()) {
+            throw new AppException(ErrorCode.EMAIL_CAMPAIGN_NO_RECIPIENTS);
+        }
+
+        EmailCampaign campaign = emailCampaignRepository.save(EmailCampaign.builder()
+                .templateName(request.getTemplateName())
+                .subject(request.getSubject())
+                .notes(request.getNotes())
+                .status(EmailCampaignStatus.QUEUED)
+                .totalRecipients(applicationIds.size())
+                .queuedCount(0)
+                .failedCount(0)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        log.info("Queued email campaign {} for {} recipients using {}", campaign.getId(), applicationIds.size(),
+                campaign.getTemplateName());
+
+        heldCampaigns.add(campaign.getId());
+        coordinator.execute(() -> run(campaign, applicationIds));
+        return toResponse(campaign);
+    }
+
+    public EmailCampaignResponse getCampaign(Long id) {
+        return toResponse(emailCampaignRepository.findById(id)
+                .orElseThrow(() -> new AppException(ErrorCode.EMAIL_CAMPAIGN_NOT_FOUND)));
+    }
+
+    public Page<EmailCampaignResponse> getAllCampaigns(Pageable pageable) {
+        return emailCampaignRepository.findAll(pageable).map(this::toResponse);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.campaign.stale-check-interval:300000}",
+            initialDelayString = "${app.mail.campaign.stale-check-initial-delay:60000}")
+    public void failAbandonedCampaigns() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!heldCampaigns.isEmpty()) {
+            emailCampaignRepository.touch(Set.copyOf(heldCampaigns), ACTIVE_STATUSES, now);
+        }
+        int failed = emailCampaignRepository.failStale(ACTIVE_STATUSES, EmailCampaignStatus.FAILED,
+                "Interrupted: no progress reported, most likely stopped by an application restart",
+                now.minus(Duration.ofMillis(properties.getStaleAfter())), now);
+        if (failed > 0) {
+            log.warn("Marked {} interrupted email campaigns as FAILED", failed);
+        }
+    }
+
+    private List<Long> resolveRecipients(EmailCampaignRequest request) {
+        if (request.getApplicationIds() != null && !request.getApplicationIds().isEmpty()) {
+            return new ArrayList<>(new LinkedHashSet<>(request.getApplicationIds()));
+        }
+        if (request.getStatus() != null) {
+            return loanApplicationRepository.findIdsByStatus(request.getStatus());
+        }
+        return List.of();
+    }
+
+    private void run(EmailCampaign campaign, List<Long> applicationIds) {
+        try {
+            if (emailCampaignRepository.transition(campaign.getId(), EmailCampaignStatus.QUEUED,
+                    EmailCampaignStatus.RUNNING, LocalDateTime.now()) == 0) {
+                log.warn("Email campaign {} is no longer queued, skipping it", campaign.getId());
+                return;
+            }
+            process(campaign, applicationIds);
+        } finally {
+            heldCampaigns.remove(campaign.getId());
+        }
+    }
+
+    private void process(EmailCampaign campaign, List<Long> applicationIds) {
+        long start = System.currentTimeMillis();
+        log.info("Starting email campaign {}", campaign.getId());
+        try {
+            for (int from = 0; from < applicationIds.size(); from += properties.getPageSize()) {
+                List<Long> pageIds = applicationIds.subList(from,
+                        Math.min(from + properties.getPageSize(), applicationIds.size()));
+                processPage(campaign, pageIds);
+            }
+            if (emailCampaignRepository.finish(campaign.getId(), EmailCampaignStatus.RUNNING,
+                    EmailCampaignStatus.COMPLETED, null, LocalDateTime.now()) == 0) {
+                log.warn("Email campaign {} was marked as failed while it ran", campaign.getId());
+                return;
+            }
+            log.info("Email campaign {} queued in {} ms", campaign.getId(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Email campaign {} failed", campaign.getId(), e);
+            String error = String.valueOf(e.getMessage());
+            emailCampaignRepository.finish(campaign.getId(), EmailCampaignStatus.RUNNING, EmailCampaignStatus.FAILED,
+                    error.length() > 1000 ? error.substring(0, 1000) : error, LocalDateTime.now());
+        }
+    }
+
+    // Loads one page of applications, renders it chunk by chunk in parallel and waits before loading the next
+    private void processPage(EmailCampaign campaign, List<Long> pageIds) throws Exception {
+        List<LoanApplication> applications = loanApplicationRepository.findAllWithUserAndProductByIdIn(pageIds);
+        boolean disbursement = "disburse-template".equals(campaign.getTemplateName());
+        Map<Long, Long> disbursedTotals = disbursement ? totalDisbursed(pageIds) : Map.of();
+        Map<Long, DisbursementTransaction> latestDisbursements = disbursement ? latestDisbursements(pageIds)
+                : Map.of();
+
+        int missing = pageIds.size() - applications.size();
+        if (missing > 0) {
+            emailCampaignRepository.incrementProgress(campaign.getId(), 0, missing, LocalDateTime.now());
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < applications.size(); from += properties.getChunkSize()) {
+            List<LoanApplication> chunk = applications.subList(from,
+                    Math.min(from + properties.getChunkSize(), applications.size()));
+            futures.add(renderPool.submit(() -> renderChunk(campaign, chunk, disbursedTotals,
+                    latestDisbursements)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private void renderChunk(EmailCampaign campaign, List<LoanApplication> chunk, Map<Long, Long> disbursedTotals,
+            Map<Long, DisbursementTransaction> latestDisbursements) {
+        List<EmailOutboxService.RenderedEmail> rendered = new ArrayList<>(chunk.size());
+        int failed = 0;
+        for (LoanApplication application : chunk) {
+            try {
+                String html = emailTemplateRenderer.render(campaign.getTemplateName(),
+                        variablesFor(campaign, application, disbursedTotals, latestDisbursements));
+                rendered.add(new EmailOutboxService.RenderedEmail(application.getUser().getEmail(),
+                        subjectFor(campaign, application), html));
+            } catch (RuntimeException e) {
+                failed++;
+                log.warn("Campaign {}: could not render email for application {}: {}", campaign.getId(),
+                        application.getId(), e.getMessage());
+            }
+        }
+        if (!rendered.isEmpty()) {
+            emailOutboxService.enqueueRendered(campaign.getId(), campaign.getTemplateName(), rendered);
+        }
+        emailCampaignRepository.incrementProgress(campaign.getId(), rendered.size(), failed, LocalDateTime.now());
+    }
+
+    private Map<String, Object> variablesFor(EmailCampaign campaign, LoanApplication application,
+            Map<Long, Long> disbursedTotals, Map<Long, DisbursementTransaction> latestDisbursements) {
+        if ("disburse-template".equals(campaign.getTemplateName())) {
+            Long totalDisbursed = disbursedTotals.getOrDefault(application.getId(), 0L);
+            DisbursementTransaction latest = latestDisbursements.get(application.getId());
+            return emailService.disbursementVariables(
+                    application.getUser().getFullName(),
+                    latest != null ? latest.getAmount().doubleValue() : 0.0,
+                    totalDisbursed.doubleValue(),
+                    application.getRequestedAmount().doubleValue(),
+                    (latest != null ? latest.getTransactionDate() : LocalDateTime.now()).format(DATE_FORMAT),
+                    application.getId(),
+                    campaign.getNotes());
+        }
+        return emailService.applicationResultVariables(
+                application.getUser().getFullName(),
+                application.getStatus().name(),
+                loanApplicationService.getStatusText(application.getStatus()),
+                application.getId(),
+                application.getRequestedAmount(),
+                application.getLoanProduct().getName(),
+                campaign.getNotes() != null ? campaign.getNotes() : application.getInternalNotes());
+    }
+
+    private String subjectFor(EmailCampaign campaign, LoanApplication application) {
+        if (campaign.getSubject() != null && !campaign.getSubject().isBlank()) {
+            return campaign.getSubject();
+        }
+        if ("disburse-template".equals(campaign.getTemplateName())) {
+            return "Thông báo giải ngân - LoanConv";
+        }
+        return String.format("Cập nhật trạng thái đơn vay #%d - %s", application.getId(),
+                loanApplicationService.getStatusText(application.getStatus()));
+    }
+
+    private Map<Long, Long> totalDisbursed(List<Long> applicationIds) {
+        Map<Long, Long> totals = new HashMap<>();
+        for (Object[] row : disbursementTransactionRepository.getTotalDisbursedAmounts(applicationIds)) {
+            totals.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return totals;
+    }
+
+    private Map<Long, DisbursementTransaction> latestDisbursements(List<Long> applicationIds) {
+        Map<Long, DisbursementTransaction> latest = new HashMap<>();
+        for (DisbursementTransaction disbursement : disbursementTransactionRepository
+                .findLatestDisbursements(applicationIds)) {
+            latest.put(disbursement.getApplicationId(), disbursement);
+        }
+        return latest;
+    }
+
+    private EmailCampaignResponse toResponse(EmailCampaign campaign) {
+        Map<EmailOutboxStatus, Long> counts = emailOutboxService.countByCampaign(campaign.getId());
+        return EmailCampaignResponse.builder()
+                .id(campaign.getId())
+                .templateName(campaign.getTemplateName())
+                .subject(campaign.getSubject())
+                .status(campaign.getStatus().name())
+                .totalRecipients(campaign.getTotalRecipients())
+                .queuedCount(campaign.getQueuedCount())
+                .failedCount(campaign.getFailedCount())
+                .sentCount(counts.getOrDefault(EmailOutboxStatus.SENT, 0L))
+                .pendingCount(counts.getOrDefault(EmailOutboxStatus.PENDING, 0L)
+                        + counts.getOrDefault(EmailOutboxStatus.SENDING, 0L))
+                .deadCount(counts.getOrDefault(EmailOutboxStatus.DEAD, 0L))
+                .lastError(campaign.getLastError())
+                .createdAt(campaign.getCreatedAt())
+                .completedAt(campaign.getCompletedAt())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        renderPool.shutdownNow();
+    }
+}
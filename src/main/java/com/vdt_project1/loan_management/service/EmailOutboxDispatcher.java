@@ -0,0 +1,144 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.configuration.MailOutboxProperties;
+import com.vdt_project1.loan_management.configuration.MailSenderProperties;
+import com.vdt_project1.loan_management.entity.EmailOutbox;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the email outbox in the background. One worker per pooled SMTP
+ * connection claims a batch, renders it and sends it over that connection;
+ * sending happens outside of any database transaction.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class EmailOutboxDispatcher {
+    EmailOutboxService emailOutboxService;
+    EmailService emailService;
+    SmtpBatchSender smtpBatchSender;
+    MailOutboxProperties mailOutboxProperties;
+    int workers;
+    ExecutorService executor;
+    AtomicLong lastThroughput = new AtomicLong();
+
+    public EmailOutboxDispatcher(EmailOutboxService emailOutboxService, EmailService emailService,
+            SmtpBatchSender smtpBatchSender, MailOutboxProperties mailOutboxProperties,
+            MailSenderProperties mailSenderProperties, MeterRegistry meterRegistry) {
+        this.emailOutboxService = emailOutboxService;
+        this.emailService = emailService;
+        this.smtpBatchSender = smtpBatchSender;
+        this.mailOutboxProperties = mailOutboxProperties;
+        this.workers = mailSenderProperties.getPoolSize();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "mail-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("mail.throughput", lastThroughput, AtomicLong::get)
+                .description("Messages per second sent during the last dispatch run")
+                .baseUnit("messages/s")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval:5000}")
+    public void dispatch() {
+        long start = System.nanoTime();
+        AtomicInteger sent = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(executor.submit(() -> drain(sent)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Email dispatch worker failed", e.getCause());
+            }
+        }
+
+        if (sent.get() > 0) {
+            double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+            lastThroughput.set(Math.round(sent.get() / seconds));
+            log.info("Sent {} emails in {} ms ({} msg/s)", sent.get(), Math.round(seconds * 1000),
+                    lastThroughput.get());
+        }
+    }
+
+    private void drain(AtomicInteger sent) {
+        for (int run = 0; run < mailOutboxProperties.getMaxBatchesPerRun(); run++) {
+            List<EmailOutbox> batch = emailOutboxService.claimDueBatch();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                sent.addAndGet(sendBatch(batch));
+            } catch (InterruptedException e) {
+                // Unsent messages keep their lease and are retried once it expires
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int sendBatch(List<EmailOutbox> batch) throws InterruptedException {
+        List<EmailOutbox> rendered = new ArrayList<>(batch.size());
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (EmailOutbox emailOutbox : batch) {
+            try {
+                messages.add(emailService.render(emailOutbox));
+                rendered.add(emailOutbox);
+            } catch (Exception e) {
+                log.warn("Failed to render email {}: {}", emailOutbox.getId(), e.getMessage());
+                emailOutboxService.markFailed(emailOutbox.getId(), e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        List<Exception> results = smtpBatchSender.send(messages);
+        List<Long> sentIds = new ArrayList<>(rendered.size());
+        for (int i = 0; i < rendered.size(); i++) {
+            EmailOutbox emailOutbox = rendered.get(i);
+            Exception error = results.get(i);
+            if (error == null) {
+                sentIds.add(emailOutbox.getId());
+            } else {
+                log.warn("Failed to send email {} to {}: {}", emailOutbox.getId(), emailOutbox.getRecipient(),
+                        error.getMessage());
+                emailOutboxService.markFailed(emailOutbox.getId(), error.getMessage());
+            }
+        }
+        emailOutboxService.markSent(sentIds);
+        return sentIds.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,157 @@
+package com.vdt_project1.loan_management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vdt_project1.loan_management.configuration.MailOutboxProperties;
+import com.vdt_project1.loan_management.entity.EmailOutbox;
+import com.vdt_project1.loan_management.enums.EmailOutboxStatus;
+import com.vdt_project1.loan_management.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for outgoing email. Messages are written in the caller's
+ * transaction and delivered later by {@link EmailOutboxDispatcher}, so no
+ * request ever waits on the SMTP server.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class EmailOutboxService {
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {
+    };
+    public static final int PRIORITY_TRANSACTIONAL = 0;
+    public static final int PRIORITY_CAMPAIGN = 10;
+
+    EmailOutboxRepository emailOutboxRepository;
+    MailOutboxProperties mailOutboxProperties;
+    ObjectMapper objectMapper;
+
+    @Transactional
+    public EmailOutbox enqueue(String recipient, String subject, String templateName, Map<String, Object> variables) {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutbox emailOutbox = EmailOutbox.builder()
+                .recipient(recipient)
+                .subject(subject)
+                .templateName(templateName)
+                .templateVariables(writeVariables(variables))
+                .status(EmailOutboxStatus.PENDING)
+                .priority(PRIORITY_TRANSACTIONAL)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+        return emailOutboxRepository.save(emailOutbox);
+    }
+
+    // Queues a chunk of pre-rendered campaign emails in one transaction
+    @Transactional
+    public void enqueueRendered(Long campaignId, String templateName, List<RenderedEmail> emails) {
+        LocalDateTime now = LocalDateTime.now();
+        emailOutboxRepository.saveAll(emails.stream()
+                .map(email -> EmailOutbox.builder()
+                        .recipient(email.recipient())
+                        .subject(email.subject())
+                        .templateName(templateName)
+                        .htmlBody(email.htmlBody())
+                        .campaignId(campaignId)
+                        .status(EmailOutboxStatus.PENDING)
+                        .priority(PRIORITY_CAMPAIGN)
+                        .attempts(0)
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build())
+                .toList());
+    }
+
+    @Transactional(readOnly = true)
+    public Map<EmailOutboxStatus, Long> countByCampaign(Long campaignId) {
+        Map<EmailOutboxStatus, Long> counts = new EnumMap<>(EmailOutboxStatus.class);
+        for (Object[] row : emailOutboxRepository.countByCampaignIdGroupByStatus(campaignId)) {
+            counts.put((EmailOutboxStatus) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    // Reserves a batch of due messages for the calling dispatcher and commits right away
+    @Transactional
+    public List<EmailOutbox> claimDueBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> batch = emailOutboxRepository.findDueForUpdate(now, mailOutboxProperties.getBatchSize());
+        LocalDateTime leaseUntil = now.plusNanos(mailOutboxProperties.getLease() * 1_000_000);
+        batch.forEach(emailOutbox -> {
+            emailOutbox.setStatus(EmailOutboxStatus.SENDING);
+            emailOutbox.setNextAttemptAt(leaseUntil);
+        });
+        return emailOutboxRepository.saveAll(batch);
+    }
+
+    @Transactional
+    public void markSent(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        emailOutboxRepository.findAllById(ids).forEach(emailOutbox -> {
+            emailOutbox.setStatus(EmailOutboxStatus.SENT);
+            emailOutbox.setAttempts(emailOutbox.getAttempts() + 1);
+            emailOutbox.setSentAt(now);
+            emailOutbox.setLastError(null);
+        });
+    }
+
+    @Transactional
+    public void markFailed(Long id, String error) {
+        emailOutboxRepository.findById(id).ifPresent(emailOutbox -> {
+            int attempts = emailOutbox.getAttempts() + 1;
+            emailOutbox.setAttempts(attempts);
+            emailOutbox.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+
+            if (attempts >= mailOutboxProperties.getMaxAttempts()) {
+                emailOutbox.setStatus(EmailOutboxStatus.DEAD);
+                log.error("Email {} to {} moved to dead letter after {} attempts", id, emailOutbox.getRecipient(),
+                        attempts);
+            } else {
+                emailOutbox.setStatus(EmailOutboxStatus.PENDING);
+                emailOutbox.setNextAttemptAt(LocalDateTime.now().plusNanos(backoffMillis(attempts) * 1_000_000));
+            }
+        });
+    }
+
+    public Map<String, Object> readVariables(EmailOutbox emailOutbox) {
+        if (emailOutbox.getTemplateVariables() == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(emailOutbox.getTemplateVariables(), VARIABLES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable template variables for email " + emailOutbox.getId(), e);
+        }
+    }
+
+    public record RenderedEmail(String recipient, String subject, String htmlBody) {
+    }
+
+    private String writeVariables(Map<String, Object> variables) {
+        try {
+            return objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Template variables are not serializable", e);
+        }
+    }
+
+    private long backoffMillis(int attempts) {
+        long backoff = mailOutboxProperties.getInitialBackoff() << Math.min(attempts - 1, 20);
+        return Math.min(backoff, mailOutboxProperties.getMaxBackoff());
+    }
+}
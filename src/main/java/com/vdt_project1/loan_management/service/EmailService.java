@@ -1,5 +1,6 @@
 package com.vdt_project1.loan_management.service;
 
+import com.vdt_project1.loan_management.entity.EmailOutbox;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -8,8 +9,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -17,85 +19,85 @@ import org.thymeleaf.context.Context;
 public class EmailService {
 
     final JavaMailSender mailSender;
-    final TemplateEngine templateEngine;
+    final EmailTemplateRenderer emailTemplateRenderer;
+    final EmailOutboxService emailOutboxService;
 
     @Value("${spring.mail.properties.mail.from:test.anhnguyenthe29112004@gmail.com}")
     String fromEmail;
 
-    public void sendHtmlTemplateEmail(String to, String subject, String name, String verificationCode)
-            throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-        // Tạo nội dung HTML từ template
-        Context context = new Context();
-        context.setVariable("name", name);
-        context.setVariable("verificationCode", verificationCode);
-        String htmlContent = templateEngine.process("email-template", context);
-
-        helper.setFrom(fromEmail); // Sử dụng email từ cấu hình
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(htmlContent, true); // true = HTML
+    // Các hàm send* chỉ ghi email vào outbox, việc gửi thực tế do EmailOutboxDispatcher thực hiện
+    public void sendHtmlTemplateEmail(String to, String subject, String name, String verificationCode) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", name);
+        variables.put("verificationCode", verificationCode);
 
-        mailSender.send(message);
+        emailOutboxService.enqueue(to, subject, "email-template", variables);
     }
 
     public void sendDisbursementEmail(String to, String name, String subject,
             Double amount, Double totalDisbursed, Double totalAmount,
-            String transactionDate, Long applicationId, String notes) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            String transactionDate, Long applicationId, String notes) {
+        emailOutboxService.enqueue(to, subject, "disburse-template", disbursementVariables(name, amount,
+                totalDisbursed, totalAmount, transactionDate, applicationId, notes));
+    }
 
+    public void sendApplicationResultEmail(String to, String name, String subject,
+            String status, String statusText, Long applicationId, Long amount,
+            String productName, String internalNotes) {
+        emailOutboxService.enqueue(to, subject, "application-result-template", applicationResultVariables(name,
+                status, statusText, applicationId, amount, productName, internalNotes));
+    }
+
+    public Map<String, Object> disbursementVariables(String name, Double amount, Double totalDisbursed,
+            Double totalAmount, String transactionDate, Long applicationId, String notes) {
         // Tính toán các giá trị cần thiết
         Double remainingAmount = totalAmount - totalDisbursed;
         Double progressPercentage = (totalDisbursed / totalAmount) * 100;
         boolean isFullyDisbursed = remainingAmount <= 0.01; // Xử lý làm tròn
 
-        // Tạo nội dung HTML từ template
-        Context context = new Context();
-        context.setVariable("name", name);
-        context.setVariable("amount", amount);
-        context.setVariable("totalDisbursed", totalDisbursed);
-        context.setVariable("totalAmount", totalAmount);
-        context.setVariable("remainingAmount", remainingAmount);
-        context.setVariable("progressPercentage", Math.round(progressPercentage));
-        context.setVariable("isFullyDisbursed", isFullyDisbursed);
-        context.setVariable("transactionDate", transactionDate);
-        context.setVariable("applicationId", applicationId);
-        context.setVariable("notes", notes);
-        String htmlContent = templateEngine.process("disburse-template", context);
-
-        helper.setFrom(fromEmail); // Sử dụng email từ cấu hình
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(htmlContent, true); // true = HTML
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", name);
+        variables.put("amount", amount);
+        variables.put("totalDisbursed", totalDisbursed);
+        variables.put("totalAmount", totalAmount);
+        variables.put("remainingAmount", remainingAmount);
+        variables.put("progressPercentage", Math.round(progressPercentage));
+        variables.put("isFullyDisbursed", isFullyDisbursed);
+        variables.put("transactionDate", transactionDate);
+        variables.put("applicationId", applicationId);
+        variables.put("notes", notes);
+        return variables;
+    }
 
-        mailSender.send(message);
+    public Map<String, Object> applicationResultVariables(String name, String status, String statusText,
+            Long applicationId, Long amount, String productName, String internalNotes) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", name);
+        variables.put("status", status);
+        variables.put("statusText", statusText);
+        variables.put("applicationId", applicationId);
+        variables.put("amount", amount);
+        variables.put("productName", productName);
+        variables.put("internalNotes", internalNotes);
+        return variables;
     }
 
-    public void sendApplicationResultEmail(String to, String name, String subject,
-            String status, String statusText, Long applicationId, Long amount,
-            String productName, String internalNotes) throws MessagingException {
+    // Render template thành MimeMessage cho một email lấy ra từ outbox, việc gửi do SmtpBatchSender thực hiện
+    public MimeMessage render(EmailOutbox emailOutbox) throws MessagingException {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
-        // Tạo nội dung HTML từ template
-        Context context = new Context();
-        context.setVariable("name", name);
-        context.setVariable("status", status);
-        context.setVariable("statusText", statusText);
-        context.setVariable("applicationId", applicationId);
-        context.setVariable("amount", amount);
-        context.setVariable("productName", productName);
-        context.setVariable("internalNotes", internalNotes);
-        String htmlContent = templateEngine.process("application-result-template", context);
+        // Tạo nội dung HTML từ template, email của campaign đã được render sẵn
+        String htmlContent = emailOutbox.getHtmlBody() != null
+                ? emailOutbox.getHtmlBody()
+                : emailTemplateRenderer.render(emailOutbox.getTemplateName(),
+                        emailOutboxService.readVariables(emailOutbox));
 
         helper.setFrom(fromEmail); // Sử dụng email từ cấu hình
-        helper.setTo(to);
-        helper.setSubject(subject);
+        helper.setTo(emailOutbox.getRecipient());
+        helper.setSubject(emailOutbox.getSubject());
         helper.setText(htmlContent, true); // true = HTML
 
-        mailSender.send(message);
+        return message;
     }
 }
@@ -0,0 +1,76 @@
+package com.vdt_project1.loan_management.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders email bodies. The shared header and footer are static, so they are
+ * rendered once and handed to each template as plain strings; per message
+ * Thymeleaf only evaluates the variable parts. Parsed templates stay in the
+ * engine's template cache (spring.thymeleaf.cache) and are parsed at startup
+ * rather than on the first email.
+ */
+@Slf4j
+@Component
+public class EmailTemplateRenderer {
+    static final String LAYOUT_TEMPLATE = "fragments/email-layout";
+    static final List<String> EMAIL_TEMPLATES = List.of(
+            "email-template", "disburse-template", "application-result-template");
+
+    private final TemplateEngine templateEngine;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> renderTimers = new ConcurrentHashMap<>();
+    private volatile String header;
+    private volatile String footer;
+
+    public EmailTemplateRenderer(TemplateEngine templateEngine, MeterRegistry meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precompile() {
+        prerenderLayout();
+        for (String template : EMAIL_TEMPLATES) {
+            try {
+                render(template, Map.of());
+            } catch (RuntimeException e) {
+                log.warn("Could not precompile email template {}: {}", template, e.getMessage());
+            }
+        }
+        log.info("Precompiled {} email templates", EMAIL_TEMPLATES.size());
+    }
+
+    public String render(String templateName, Map<String, Object> variables) {
+        if (header == null) {
+            prerenderLayout();
+        }
+        Context context = new Context();
+        context.setVariables(variables);
+        context.setVariable("emailHeader", header);
+        context.setVariable("emailFooter", footer);
+
+        Timer timer = renderTimers.computeIfAbsent(templateName, name -> Timer.builder("mail.template.render")
+                .description("Time to render an email body")
+                .tag("template", name)
+                .register(meterRegistry));
+        return timer.record(() -> templateEngine.process(templateName, context));
+    }
+
+    private void prerenderLayout() {
+        Context context = new Context();
+        footer = templateEngine.process(LAYOUT_TEMPLATE, Set.of("footer"), context);
+        header = templateEngine.process(LAYOUT_TEMPLATE, Set.of("header"), context);
+    }
+}
@@ -0,0 +1,181 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.configuration.ExportProperties;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams loan book extracts as CSV straight from a forward-only JDBC cursor.
+ *
+ * Rows are fetched in batches of app.export.fetch-size and written to the
+ * response one by one, so memory stays flat regardless of the number of rows.
+ * The query runs inside a read-only transaction because the PostgreSQL driver
+ * only uses a server-side cursor when auto-commit is off.
+ */
+@Slf4j
+@Service
+public class ExportService {
+    static final String[] LOAN_APPLICATION_HEADER = { "application_id", "user_id", "user_email", "user_full_name",
+            "product_id", "product_name", "requested_amount", "requested_term", "status", "created_at",
+            "updated_at" };
+    static final String[] DISBURSEMENT_HEADER = { "transaction_id", "application_id", "user_email",
+            "product_name", "amount", "transaction_date", "notes", "reversal_of", "created_at" };
+    static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    // Leading characters spreadsheet tools treat as the start of a formula, OWASP CSV injection list
+    static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+            ExportProperties properties) {
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(properties.getFetchSize());
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void exportLoanApplications(LoanApplicationStatus status, LocalDateTime createdFrom,
+            LocalDateTime createdTo, OutputStream outputStream) throws IOException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT la.application_id, u.user_id, u.email, u.full_name, lp.product_id, lp.name, "
+                        + "la.requested_amount, la.requested_term, la.status, la.created_at, la.updated_at "
+                        + "FROM loan_applications la "
+                        + "JOIN users u ON u.user_id = la.user_id "
+                        + "JOIN loan_products lp ON lp.product_id = la.product_id");
+        List<String> conditions = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (status != null) {
+            conditions.add("la.status = :status");
+            params.addValue("status", status.name());
+        }
+        if (createdFrom != null) {
+            conditions.add("la.created_at >= :createdFrom");
+            params.addValue("createdFrom", createdFrom);
+        }
+        if (createdTo != null) {
+            conditions.add("la.created_at <= :createdTo");
+            params.addValue("createdTo", createdTo);
+        }
+        appendConditions(sql, conditions);
+        sql.append(" ORDER BY la.application_id");
+
+        stream("loan applications", sql.toString(), params, LOAN_APPLICATION_HEADER, outputStream);
+    }
+
+    public void exportDisbursements(LocalDateTime from, LocalDateTime to, OutputStream outputStream)
+            throws IOException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT dt.transaction_id, dt.application_id, u.email, lp.name, dt.amount, dt.transaction_date, "
+                        + "dt.notes, dt.reversal_of, dt.created_at "
+                        + "FROM disbursement_transactions dt "
+                        + "JOIN loan_applications la ON la.application_id = dt.application_id "
+                        + "JOIN users u ON u.user_id = la.user_id "
+                        + "JOIN loan_products lp ON lp.product_id = la.product_id");
+        List<String> conditions = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (from != null) {
+            conditions.add("dt.transaction_date >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            conditions.add("dt.transaction_date <= :to");
+            params.addValue("to", to);
+        }
+        appendConditions(sql, conditions);
+        sql.append(" ORDER BY dt.transaction_id");
+
+        stream("disbursements", sql.toString(), params, DISBURSEMENT_HEADER, outputStream);
+    }
+
+    private void stream(String name, String sql, MapSqlParameterSource params, String[] header,
+            OutputStream outputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                WRITE_BUFFER_SIZE);
+        // BOM so that spreadsheet tools detect UTF-8 and show Vietnamese names correctly
+        writer.write('\uFEFF');
+        writeRow(writer, (Object[]) header);
+
+        long[] rows = { 0 };
+        try {
+            readOnlyTransaction.executeWithoutResult(tx -> jdbcTemplate.query(sql, params,
+                    (RowCallbackHandler) resultSet -> {
+                        writeRow(writer, readRow(resultSet, header.length));
+                        rows[0]++;
+                    }));
+        } catch (UncheckedIOException e) {
+            // Usually the client closed the connection, the cursor has already been released
+            log.warn("Export of {} aborted after {} rows: {}", name, rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Exported {} {} in {} ms", rows[0], name, System.currentTimeMillis() - start);
+    }
+
+    private Object[] readRow(ResultSet resultSet, int columns) throws SQLException {
+        Object[] values = new Object[columns];
+        for (int i = 0; i < columns; i++) {
+            Object value = resultSet.getObject(i + 1);
+            values[i] = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : value;
+        }
+        return values;
+    }
+
+    private void writeRow(Writer writer, Object... values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (!(value instanceof CharSequence)) {
+            return value.toString();
+        }
+        String text = value.toString();
+        // Text starting with a formula character would be evaluated by spreadsheet tools
+        if (!text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private void appendConditions(StringBuilder sql, List<String> conditions) {
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.response.LoanApplicationResponse;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.entity.User;
+import com.vdt_project1.loan_management.enums.AccountStatus;
+import com.vdt_project1.loan_management.mapper.LoanApplicationMapper;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Accent-insensitive substring search over applicants (full name, email, phone)
+ * and loan application personal info.
+ *
+ * On PostgreSQL the searchable text is indexed with pg_trgm GIN indexes over
+ * lower(f_unaccent(...)), so "nguyen van" finds "Nguyễn Văn An" and
+ * LIKE '%token%' is answered from the index instead of a sequential scan.
+ * Tokens of at least four characters also match a word they are close to
+ * (pg_trgm word similarity, the {@code <%} operator, answered from the same
+ * index), so "nguyn" still finds "Nguyễn". The
+ * extensions and indexes are created at startup if they are missing. On other
+ * databases, or when the extensions cannot be installed, search falls back to a
+ * plain case-insensitive LIKE.
+ */
+@Slf4j
+@Service
+public class FullTextSearchService {
+    // Must stay identical to the indexed expressions so the planner can use them
+    static final String USER_DOCUMENT = "lower(f_unaccent(coalesce(full_name, '') || ' ' || coalesce(email, '') "
+            + "|| ' ' || coalesce(phone_number, '')))";
+    static final String APPLICATION_DOCUMENT = "lower(f_unaccent(personal_info))";
+    static final String USER_DOCUMENT_FALLBACK = "lower(coalesce(full_name, '') || ' ' || coalesce(email, '') "
+            + "|| ' ' || coalesce(phone_number, ''))";
+    static final String APPLICATION_DOCUMENT_FALLBACK = "lower(personal_info)";
+
+    static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    static final int MAX_TOKENS = 5;
+    static final int MIN_FUZZY_TOKEN_LENGTH = 4;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final LoanApplicationMapper loanApplicationMapper;
+    private final boolean trigramRequested;
+    private volatile boolean trigramEnabled;
+
+    public FullTextSearchService(NamedParameterJdbcTemplate jdbcTemplate, UserRepository userRepository,
+            LoanApplicationRepository loanApplicationRepository, LoanApplicationMapper loanApplicationMapper,
+            @Value("${app.search.trigram.enabled:true}") boolean trigramRequested) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.loanApplicationMapper = loanApplicationMapper;
+        this.trigramRequested = trigramRequested;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSearchIndexes() {
+        if (!trigramRequested || !isPostgres()) {
+            log.info("Trigram search disabled, using LIKE fallback");
+            return;
+        }
+        try {
+            var jdbc = jdbcTemplate.getJdbcTemplate();
+            jdbc.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbc.execute("CREATE EXTENSION IF NOT EXISTS unaccent");
+            // unaccent() is only STABLE, an IMMUTABLE wrapper is required to use it in an index
+            jdbc.execute("CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text AS "
+                    + "$func$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $func$ "
+                    + "LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT");
+            jdbc.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_search_trgm ON users "
+                    + "USING gin ((" + USER_DOCUMENT + ") gin_trgm_ops)");
+            jdbc.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_applications_personal_info_trgm "
+                    + "ON loan_applications USING gin ((" + APPLICATION_DOCUMENT + ") gin_trgm_ops)");
+            trigramEnabled = true;
+            log.info("Trigram search indexes are ready");
+        } catch (RuntimeException e) {
+            log.warn("Could not set up trigram search, using LIKE fallback: {}", e.getMessage());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Page<User> searchUsers(String query, AccountStatus status, Pageable pageable) {
+        List<String> tokens = tokenize(query);
+        String document = trigramEnabled ? USER_DOCUMENT : USER_DOCUMENT_FALLBACK;
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = new StringBuilder(" FROM users WHERE ").append(likeAll(document, tokens, params));
+        if (status != null) {
+            where.append(" AND account_status = :status");
+            params.addValue("status", status.name());
+        }
+
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*)" + where, params, Long.class);
+        if (total == null || total == 0) {
+            return Page.empty(pageable);
+        }
+
+        String order = trigramEnabled
+                ? " ORDER BY similarity(" + document + ", :query) DESC, user_id DESC"
+                : " ORDER BY user_id DESC";
+        params.addValue("query", String.join(" ", tokens));
+        List<Long> ids = jdbcTemplate.queryForList("SELECT user_id" + where + order + limit(pageable, params),
+                params, Long.class);
+
+        return new PageImpl<>(inOrder(ids, userRepository.findAllById(ids), User::getId), pageable, total);
+    }
+
+    // A match is either in the application's personal info or in its applicant's profile
+    @Transactional(readOnly = true)
+    public Page<LoanApplicationResponse> searchLoanApplications(String query, Pageable pageable) {
+        List<String> tokens = tokenize(query);
+        String applicationDocument = trigramEnabled ? APPLICATION_DOCUMENT : APPLICATION_DOCUMENT_FALLBACK;
+        String userDocument = trigramEnabled ? USER_DOCUMENT : USER_DOCUMENT_FALLBACK;
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String matches = "SELECT application_id FROM loan_applications WHERE "
+                + likeAll(applicationDocument, tokens, params)
+                + " UNION SELECT la.application_id FROM loan_applications la "
+                + "JOIN users u ON u.user_id = la.user_id WHERE " + likeAll(userDocument, tokens, params);
+
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (" + matches + ") m", params, Long.class);
+        if (total == null || total == 0) {
+            return Page.empty(pageable);
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT application_id FROM (" + matches + ") m "
+                + "ORDER BY application_id DESC" + limit(pageable, params), params, Long.class);
+
+        List<LoanApplication> applications = inOrder(ids, loanApplicationRepository.findAllWithDetailsByIdIn(ids),
+                LoanApplication::getId);
+        return new PageImpl<>(applications.stream().map(loanApplicationMapper::toResponse).toList(), pageable,
+                total);
+    }
+
+    // Lower-cases and strips Vietnamese diacritics the same way f_unaccent does, including đ -> d
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd').replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private List<String> tokenize(String query) {
+        String text = trigramEnabled ? normalize(query) : query.toLowerCase(Locale.ROOT);
+        List<String> tokens = Arrays.stream(text.trim().split("\\s+"))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .limit(MAX_TOKENS)
+                .toList();
+        return tokens.isEmpty() ? List.of("") : tokens;
+    }
+
+    // Every token must appear somewhere in the document, in any order, or with trigrams be close to a word of it
+    private String likeAll(String document, List<String> tokens, MapSqlParameterSource params) {
+        StringJoiner predicate = new StringJoiner(" AND ");
+        for (String token : tokens) {
+            String name = "token" + params.getParameterNames().length;
+            params.addValue(name, "%" + escapeLike(token) + "%");
+            String like = document + " LIKE :" + name + " ESCAPE '\\'";
+            if (trigramEnabled && token.length() >= MIN_FUZZY_TOKEN_LENGTH) {
+                params.addValue(name + "Word", token);
+                predicate.add("(" + like + " OR :" + name + "Word <% " + document + ")");
+            } else {
+                predicate.add(like);
+            }
+        }
+        return predicate.toString();
+    }
+
+    private String limit(Pageable pageable, MapSqlParameterSource params) {
+        params.addValue("limit", pageable.getPageSize());
+        params.addValue("offset", pageable.getOffset());
+        return " LIMIT :limit OFFSET :offset";
+    }
+
+    private static String escapeLike(String token) {
+        return token.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static <T> List<T> inOrder(List<Long> ids, List<T> entities, Function<T, Long> idOf) {
+        Map<Long, T> byId = entities.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private boolean isPostgres() {
+        try (Connection connection = Objects.requireNonNull(jdbcTemplate.getJdbcTemplate().getDataSource())
+                .getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            log.warn("Could not detect database type: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.repository.InvalidatedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes rows from invalidated_tokens once the revoked token can no longer be
+ * used. Rows are deleted in small batches, each in its own transaction, with a
+ * pause in between so the purge never holds locks on the table for long.
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class InvalidatedTokenCleanupService {
+    InvalidatedTokenRepository invalidatedTokenRepository;
+    TokenRevocationService tokenRevocationService;
+    Counter purgedCounter;
+    AtomicLong tableSize = new AtomicLong();
+
+    @NonFinal
+    @Value("${jwt.cleanup.batch-size:1000}")
+    int batchSize;
+
+    @NonFinal
+    @Value("${jwt.cleanup.max-batches:50}")
+    int maxBatches;
+
+    @NonFinal
+    @Value("${jwt.cleanup.batch-pause:200}")
+    long batchPauseMillis;
+
+    public InvalidatedTokenCleanupService(InvalidatedTokenRepository invalidatedTokenRepository,
+            TokenRevocationService tokenRevocationService, MeterRegistry meterRegistry) {
+        this.invalidatedTokenRepository = invalidatedTokenRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.purgedCounter = Counter.builder("invalidated_tokens.purged")
+                .description("Expired rows deleted from invalidated_tokens")
+                .register(meterRegistry);
+        Gauge.builder("invalidated_tokens.size", tableSize, AtomicLong::get)
+                .description("Rows in invalidated_tokens after the last purge")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.cleanup.interval:600000}", initialDelayString = "${jwt.cleanup.interval:600000}")
+    public void purgeExpiredTokens() {
+        // A revoked token stays dangerous until its refresh window is over, not just until exp
+        Date cutoff = new Date(System.currentTimeMillis() - tokenRevocationService.refreshGraceMillis());
+        long purged = 0;
+
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int deleted = invalidatedTokenRepository.deleteExpiredBatch(cutoff, batchSize);
+                purged += deleted;
+                purgedCounter.increment(deleted);
+                if (deleted < batchSize) {
+                    break;
+                }
+                Thread.sleep(batchPauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        tableSize.set(invalidatedTokenRepository.count());
+        if (purged > 0) {
+            log.info("Purged {} expired invalidated tokens, {} remaining", purged, tableSize.get());
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.vdt_project1.loan_management.service;
 
+import com.vdt_project1.loan_management.dto.request.KeysetCursor;
 import com.vdt_project1.loan_management.dto.request.LoanApplicationRequest;
+import com.vdt_project1.loan_management.dto.request.LoanApplicationSearchRequest;
+import com.vdt_project1.loan_management.dto.request.TimeSeriesReportRequest;
 import com.vdt_project1.loan_management.dto.response.*;
 import com.vdt_project1.loan_management.entity.Document;
 import com.vdt_project1.loan_management.entity.LoanApplication;
@@ -8,32 +11,44 @@ import com.vdt_project1.loan_management.entity.LoanProduct;
 import com.vdt_project1.loan_management.entity.User;
 import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
 import com.vdt_project1.loan_management.enums.NotificationType;
+import com.vdt_project1.loan_management.enums.ReportGranularity;
+import com.vdt_project1.loan_management.enums.ReportMetric;
+import com.vdt_project1.loan_management.event.ReportDataChangedEvent;
 import com.vdt_project1.loan_management.exception.AppException;
 import com.vdt_project1.loan_management.exception.ErrorCode;
 import com.vdt_project1.loan_management.mapper.LoanApplicationMapper;
-import com.vdt_project1.loan_management.repository.DisbursementTransactionRepository;
 import com.vdt_project1.loan_management.repository.DocumentRepository;
 import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.LoanApplicationSpecifications;
 import com.vdt_project1.loan_management.repository.LoanProductRepository;
 import com.vdt_project1.loan_management.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
 public class LoanApplicationService {
+    private static final int MAX_SCROLL_PAGE_SIZE = 100;
+    private static final Set<String> SEARCH_SORT_PROPERTIES = Set.of("id", "createdAt", "updatedAt", "requestedAmount",
+            "requestedTerm", "status");
+
     LoanApplicationMapper loanApplicationMapper;
     LoanApplicationRepository loanApplicationRepository;
     LoanProductRepository loanProductRepository;
@@ -42,7 +57,11 @@ public class LoanApplicationService {
     UserService userService;
     EmailService emailService;
     NotificationService notificationService;
-    DisbursementTransactionRepository disbursementTransactionRepository;
+    FullTextSearchService fullTextSearchService;
+    ReportRollupService reportRollupService;
+    TimeSeriesReportService timeSeriesReportService;
+    ReportCache reportCache;
+    ApplicationEventPublisher eventPublisher;
 
     private LoanProduct findLoanProductById(Long id) {
         return loanProductRepository.findById(id)
@@ -89,12 +108,12 @@ public class LoanApplicationService {
 
     @Transactional
     public LoanApplicationResponse createLoanApplication(LoanApplicationRequest request) {
-        UserResponse userResponse = userService.getMyProfile();
-        log.info("Creating new loan application for user ID: {}", userResponse.getId());
+        Long userId = userService.getCurrentUserId();
+        log.info("Creating new loan application for user ID: {}", userId);
 
         LoanApplication loanApplication = loanApplicationMapper.toEntity(request);
         // Validate user exists
-        User user = findUserById(userResponse.getId());
+        User user = findUserById(userId);
         loanApplication.setUser(user);
         // Validate loan product exists
         LoanProduct loanProduct = findLoanProductById(request.getProductId());
@@ -105,11 +124,16 @@ public class LoanApplicationService {
             loanApplication.setStatus(LoanApplicationStatus.NEW);
         }
 
+        loanApplication.setDisbursedTotal(0L);
+        loanApplication.setDisbursementCount(0L);
+
         // Set timestamps
         loanApplication.setCreatedAt(LocalDateTime.now());
         loanApplication.setUpdatedAt(LocalDateTime.now());
 
         LoanApplication savedApplication = loanApplicationRepository.save(loanApplication);
+        reportRollupService.applicationCreated(savedApplication);
+        eventPublisher.publishEvent(new ReportDataChangedEvent(savedApplication.getId(), "application created"));
         log.info("Loan application created successfully with ID: {}", savedApplication.getId());
         log.info("Loan application status: {}", savedApplication.getStatus());
         return loanApplicationMapper.toResponse(savedApplication);
@@ -125,11 +149,71 @@ public class LoanApplicationService {
     @Transactional(readOnly = true)
     public Page<LoanApplicationResponse> getAllLoanApplicationsOfAUser(Pageable pageable) {
         log.info("Fetching all loan applications for the current user with pagination");
-        UserResponse userResponse = userService.getMyProfile();
-        return loanApplicationRepository.findByUserId(userResponse.getId(), pageable)
+        Long userId = userService.getCurrentUserId();
+        return loanApplicationRepository.findByUserId(userId, pageable)
                 .map(loanApplicationMapper::toResponse);
     }
 
+    @Transactional(readOnly = true)
+    public Page<LoanApplicationResponse> searchLoanApplications(LoanApplicationSearchRequest request,
+            Pageable pageable) {
+        log.info("Searching loan applications with criteria: {}", request);
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SEARCH_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new AppException(ErrorCode.INVALID_SEARCH_SORT);
+            }
+        }
+        if (pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                    Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        }
+        return loanApplicationRepository.findAll(LoanApplicationSpecifications.matching(request), pageable)
+                .map(loanApplicationMapper::toResponse);
+    }
+
+    public Page<LoanApplicationResponse> fullTextSearchLoanApplications(String query, Pageable pageable) {
+        log.info("Full-text searching loan applications for: {}", query);
+        return fullTextSearchService.searchLoanApplications(query, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<LoanApplicationResponse> scrollLoanApplications(String cursor, int size,
+            boolean includeTotal) {
+        log.info("Scrolling loan applications after cursor: {}", cursor);
+        int limit = clampPageSize(size);
+        List<LoanApplication> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = loanApplicationRepository.findFirstPage(PageRequest.of(0, limit + 1));
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = position.getCreatedAt() == null
+                    ? loanApplicationRepository.findPageAfterUndated(position.getId(), PageRequest.of(0, limit + 1))
+                    : loanApplicationRepository.findPageAfter(position.getCreatedAt(), position.getId(),
+                            PageRequest.of(0, limit + 1));
+        }
+        return toCursorPage(rows, limit, includeTotal ? loanApplicationRepository.count() : null);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<LoanApplicationResponse> scrollLoanApplicationsOfAUser(String cursor, int size,
+            boolean includeTotal) {
+        log.info("Scrolling loan applications of the current user after cursor: {}", cursor);
+        Long userId = userService.getCurrentUserId();
+        int limit = clampPageSize(size);
+        List<LoanApplication> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = loanApplicationRepository.findFirstPageByUserId(userId, PageRequest.of(0, limit + 1));
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = position.getCreatedAt() == null
+                    ? loanApplicationRepository.findPageByUserIdAfterUndated(userId, position.getId(),
+                            PageRequest.of(0, limit + 1))
+                    : loanApplicationRepository.findPageByUserIdAfter(userId, position.getCreatedAt(),
+                            position.getId(), PageRequest.of(0, limit + 1));
+        }
+        return toCursorPage(rows, limit, includeTotal ? loanApplicationRepository.countByUserId(userId) : null);
+    }
+
     @Transactional(readOnly = true)
     public LoanApplicationResponse getLoanApplicationById(Long id) {
         log.info("Fetching loan application with ID: {}", id);
@@ -141,12 +225,15 @@ public class LoanApplicationService {
     public LoanApplicationResponse updateLoanApplication(Long id, LoanApplicationRequest request) {
         log.info("Updating loan application with ID: {}", id);
         LoanApplication existingApplication = findLoanApplicationById(id);
+        ReportRollupService.ApplicationFacts before = ReportRollupService.ApplicationFacts.of(existingApplication);
 
         // Update fields
         loanApplicationMapper.updateEntityFromRequest(request, existingApplication);
         existingApplication.setUpdatedAt(LocalDateTime.now());
 
         LoanApplication updatedApplication = loanApplicationRepository.save(existingApplication);
+        reportRollupService.applicationChanged(before, updatedApplication);
+        eventPublisher.publishEvent(new ReportDataChangedEvent(id, "application updated"));
         log.info("Loan application updated successfully with ID: {}", updatedApplication.getId());
         return loanApplicationMapper.toResponse(updatedApplication);
     }
@@ -163,10 +250,13 @@ public class LoanApplicationService {
         }
 
         // Update status and timestamps
+        ReportRollupService.ApplicationFacts before = ReportRollupService.ApplicationFacts.of(loanApplication);
         loanApplication.setStatus(status);
         loanApplication.setUpdatedAt(LocalDateTime.now());
 
         LoanApplication updatedApplication = loanApplicationRepository.save(loanApplication);
+        reportRollupService.applicationChanged(before, updatedApplication);
+        eventPublisher.publishEvent(new ReportDataChangedEvent(id, "status changed to " + status));
         log.info("Loan application status updated successfully with ID: {}", updatedApplication.getId());
         return loanApplicationMapper.toResponse(updatedApplication);
     }
@@ -185,55 +275,50 @@ public class LoanApplicationService {
         }
 
         // Update status and timestamps
+        ReportRollupService.ApplicationFacts before = ReportRollupService.ApplicationFacts.of(loanApplication);
         loanApplication.setStatus(status);
         loanApplication.setUpdatedAt(LocalDateTime.now());
 
         LoanApplication updatedApplication = loanApplicationRepository.save(loanApplication);
+        reportRollupService.applicationChanged(before, updatedApplication);
+        eventPublisher.publishEvent(new ReportDataChangedEvent(id, "status changed to " + status));
         log.info("Loan application status updated successfully with ID: {}", updatedApplication.getId());
 
-        // Send notification to the applicant
-        try {
-            String notificationMessage = String.format("Trạng thái đơn vay #%d của bạn đã được cập nhật thành: %s",
-                    id, getStatusText(status));
+        // The notification and the queued email commit or roll back together with the status change
+        String notificationMessage = String.format("Trạng thái đơn vay #%d của bạn đã được cập nhật thành: %s",
+                id, getStatusText(status));
 
-            if (internalNotes != null && !internalNotes.trim().isEmpty()) {
-                notificationMessage += ". Ghi chú: " + internalNotes;
-            }
-
-            // Determine notification type based on status
-            NotificationType notificationType = switch (status) {
-                case APPROVED -> NotificationType.LOAN_APPROVAL;
-                case REJECTED -> NotificationType.LOAN_REJECTION;
-                default -> NotificationType.SYSTEM;
-            };
-
-            notificationService.createNotificationForUser(
-                    loanApplication.getUser().getId(),
-                    id,
-                    notificationMessage,
-                    notificationType);
-            log.info("Notification sent to user ID: {}", loanApplication.getUser().getId());
-        } catch (Exception e) {
-            log.error("Failed to send notification for loan application ID: {}", id, e);
+        if (internalNotes != null && !internalNotes.trim().isEmpty()) {
+            notificationMessage += ". Ghi chú: " + internalNotes;
         }
 
+        // Determine notification type based on status
+        NotificationType notificationType = switch (status) {
+            case APPROVED -> NotificationType.LOAN_APPROVAL;
+            case REJECTED -> NotificationType.LOAN_REJECTION;
+            default -> NotificationType.SYSTEM;
+        };
+
+        notificationService.createNotificationForUser(
+                loanApplication.getUser().getId(),
+                id,
+                notificationMessage,
+                notificationType);
+        log.info("Notification sent to user ID: {}", loanApplication.getUser().getId());
+
         // Send email notification
-        try {
-            String emailSubject = String.format("Cập nhật trạng thái đơn vay #%d - %s", id, getStatusText(status));
-            emailService.sendApplicationResultEmail(
-                    loanApplication.getUser().getEmail(),
-                    loanApplication.getUser().getFullName(),
-                    emailSubject,
-                    status.name(),
-                    getStatusText(status),
-                    id,
-                    loanApplication.getRequestedAmount(),
-                    loanApplication.getLoanProduct().getName(),
-                    internalNotes);
-            log.info("Email notification sent to: {}", loanApplication.getUser().getEmail());
-        } catch (Exception e) {
-            log.error("Failed to send email notification for loan application ID: {}", id, e);
-        }
+        String emailSubject = String.format("Cập nhật trạng thái đơn vay #%d - %s", id, getStatusText(status));
+        emailService.sendApplicationResultEmail(
+                loanApplication.getUser().getEmail(),
+                loanApplication.getUser().getFullName(),
+                emailSubject,
+                status.name(),
+                getStatusText(status),
+                id,
+                loanApplication.getRequestedAmount(),
+                loanApplication.getLoanProduct().getName(),
+                internalNotes);
+        log.info("Email notification queued for: {}", loanApplication.getUser().getEmail());
 
         return loanApplicationMapper.toResponse(updatedApplication);
     }
@@ -243,57 +328,81 @@ public class LoanApplicationService {
         log.info("Deleting loan application with ID: {}", id);
         LoanApplication loanApplication = findLoanApplicationById(id);
         loanApplicationRepository.delete(loanApplication);
+        reportRollupService.applicationDeleted(loanApplication);
+        eventPublisher.publishEvent(new ReportDataChangedEvent(id, "application deleted"));
         log.info("Loan application deleted successfully");
     }
 
-    // Statistics service methods for reporting
-    @Transactional(readOnly = true)
+    // Statistics service methods for reporting, served from the pre-aggregated rollups through the report cache
+    public DashboardSummaryResponse getDashboardSummary() {
+        return reportCache.get("dashboard-summary", () -> {
+            // Computed directly, a stale value of a nested cached report must not end up in a fresh summary
+            ApprovalRatioResponse approvalRatio = loadApprovalRatio();
+            List<StatusStatisticsResponse> statusStats = loadApplicationStatisticsByStatus();
+
+            Long totalApplications = statusStats.stream()
+                    .mapToLong(StatusStatisticsResponse::getCount)
+                    .sum();
+
+            return DashboardSummaryResponse.builder()
+                    .totalApplications(totalApplications)
+                    .approvedCount(approvalRatio.getApprovedCount())
+                    .rejectedCount(approvalRatio.getRejectedCount())
+                    .approvalRate(approvalRatio.getApprovalRate())
+                    .rejectionRate(approvalRatio.getRejectionRate())
+                    .statusBreakdown(statusStats)
+                    .build();
+        });
+    }
+
     public List<StatusStatisticsResponse> getApplicationStatisticsByStatus() {
+        return reportCache.get("applications-by-status", this::loadApplicationStatisticsByStatus);
+    }
+
+    public List<ProductStatisticsResponse> getApplicationStatisticsByProduct() {
+        return reportCache.get("applications-by-product", this::loadApplicationStatisticsByProduct);
+    }
+
+    public ApprovalRatioResponse getApprovalRatio() {
+        return reportCache.get("approval-ratio", this::loadApprovalRatio);
+    }
+
+    private List<StatusStatisticsResponse> loadApplicationStatisticsByStatus() {
         log.info("Fetching application statistics by status");
-        List<Object[]> results = loanApplicationRepository.getApplicationCountByStatus();
-
-        return results.stream()
-                .map(result -> {
-                    LoanApplicationStatus status = (LoanApplicationStatus) result[0];
-                    Long count = (Long) result[1];
-
-                    return StatusStatisticsResponse.builder()
-                            .status(status.name())
-                            .statusText(getStatusText(status))
-                            .count(count)
-                            .color(getStatusColor(status))
-                            .build();
-                })
+        Map<LoanApplicationStatus, Long> counts = reportRollupService.getStatusCounts();
+
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(entry -> StatusStatisticsResponse.builder()
+                        .status(entry.getKey().name())
+                        .statusText(getStatusText(entry.getKey()))
+                        .count(entry.getValue())
+                        .color(getStatusColor(entry.getKey()))
+                        .build())
                 .collect(java.util.stream.Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
-    public List<ProductStatisticsResponse> getApplicationStatisticsByProduct() {
+    private List<ProductStatisticsResponse> loadApplicationStatisticsByProduct() {
         log.info("Fetching application statistics by product");
-        List<Object[]> results = loanApplicationRepository.getApplicationCountByProduct();
-
-        return results.stream()
-                .map(result -> {
-                    String productName = (String) result[0];
-                    Long count = (Long) result[1];
-
-                    return ProductStatisticsResponse.builder()
-                            .productName(productName)
-                            .count(count)
-                            .color(getRandomColor())
-                            .build();
-                })
+        Map<String, Long> counts = reportRollupService.getProductCounts();
+
+        return counts.entrySet().stream()
+                .map(entry -> ProductStatisticsResponse.builder()
+                        .productName(entry.getKey())
+                        .count(entry.getValue())
+                        .color(getRandomColor())
+                        .build())
                 .collect(java.util.stream.Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
-    public ApprovalRatioResponse getApprovalRatio() {
+    private ApprovalRatioResponse loadApprovalRatio() {
         log.info("Fetching approval ratio statistics");
+        Map<LoanApplicationStatus, Long> counts = reportRollupService.getStatusCounts();
 
-        Long approvedCount = loanApplicationRepository.countByStatus(LoanApplicationStatus.APPROVED) +
-                loanApplicationRepository.countByStatus(LoanApplicationStatus.PARTIALLY_DISBURSED) +
-                loanApplicationRepository.countByStatus(LoanApplicationStatus.FULLY_DISBURSED);
-        Long rejectedCount = loanApplicationRepository.countByStatus(LoanApplicationStatus.REJECTED);
+        Long approvedCount = ReportRollupService.APPROVED_STATUSES.stream()
+                .mapToLong(status -> counts.getOrDefault(status, 0L))
+                .sum();
+        Long rejectedCount = counts.getOrDefault(LoanApplicationStatus.REJECTED, 0L);
         Long totalCount = approvedCount + rejectedCount;
 
         Double approvalRate = totalCount > 0 ? (approvedCount * 100.0) / totalCount : 0.0;
@@ -308,49 +417,70 @@ public class LoanApplicationService {
                 .build();
     }
 
-    @Transactional(readOnly = true)
-    public List<ApprovedAmountByTimeResponse> getApprovedAmountByTime(LocalDateTime startDate, LocalDateTime endDate) {
+    // One point per period in the range, periods without approvals are zero
+    public List<ApprovedAmountByTimeResponse> getApprovedAmountByTime(LocalDate startDate, LocalDate endDate,
+            ReportGranularity granularity, String timeZone) {
         log.info("Fetching approved amount statistics from {} to {}", startDate, endDate);
-        List<Object[]> results = loanApplicationRepository.getApprovedAmountByDateRange(startDate, endDate);
-
-        return results.stream()
-                .map(result -> {
-                    java.sql.Date sqlDate = (java.sql.Date) result[0];
-                    Long totalAmount = (Long) result[1];
-                    Long count = (Long) result[2];
-
-                    return ApprovedAmountByTimeResponse.builder()
-                            .date(sqlDate.toLocalDate())
-                            .totalApprovedAmount(totalAmount)
-                            .applicationCount(count.intValue())
-                            .build();
-                })
+
+        return timeSeriesPoints(ReportMetric.APPROVED_AMOUNT, startDate, endDate, granularity, timeZone).stream()
+                .map(point -> ApprovedAmountByTimeResponse.builder()
+                        .date(point.getPeriodStart())
+                        .totalApprovedAmount(point.getAmount())
+                        .applicationCount(point.getCount().intValue())
+                        .build())
                 .collect(java.util.stream.Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
-    public List<DisbursedAmountByTimeResponse> getDisbursedAmountByTime(LocalDateTime startDate,
-            LocalDateTime endDate) {
+    public List<DisbursedAmountByTimeResponse> getDisbursedAmountByTime(LocalDate startDate, LocalDate endDate,
+            ReportGranularity granularity, String timeZone) {
         log.info("Fetching disbursed amount statistics from {} to {}", startDate, endDate);
-        List<Object[]> results = disbursementTransactionRepository.getDisbursedAmountByDateRange(startDate, endDate);
-
-        return results.stream()
-                .map(result -> {
-                    java.sql.Date sqlDate = (java.sql.Date) result[0];
-                    Long totalAmount = (Long) result[1];
-                    Long count = (Long) result[2];
-
-                    return DisbursedAmountByTimeResponse.builder()
-                            .date(sqlDate.toLocalDate())
-                            .totalDisbursedAmount(totalAmount)
-                            .disbursedCount(count)
-                            .build();
-                })
+
+        return timeSeriesPoints(ReportMetric.DISBURSED_AMOUNT, startDate, endDate, granularity, timeZone).stream()
+                .map(point -> DisbursedAmountByTimeResponse.builder()
+                        .date(point.getPeriodStart())
+                        .totalDisbursedAmount(point.getAmount())
+                        .disbursedCount(point.getCount())
+                        .build())
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    private List<TimeSeriesPointResponse> timeSeriesPoints(ReportMetric metric, LocalDate startDate,
+            LocalDate endDate, ReportGranularity granularity, String timeZone) {
+        TimeSeriesReportResponse report = timeSeriesReportService.getTimeSeries(TimeSeriesReportRequest.builder()
+                .metric(metric)
+                .granularity(granularity)
+                .startDate(startDate)
+                .endDate(endDate)
+                .timeZone(timeZone)
+                .build());
+        return report.getSeries().get(0).getPoints();
+    }
+
     // Helper methods for statistics and notifications
-    private String getStatusText(LoanApplicationStatus status) {
+    private int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_SCROLL_PAGE_SIZE);
+    }
+
+    // One extra row is fetched to know whether another page exists
+    private CursorPageResponse<LoanApplicationResponse> toCursorPage(List<LoanApplication> rows, int limit,
+            Long total) {
+        boolean hasNext = rows.size() > limit;
+        List<LoanApplication> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            LoanApplication last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return CursorPageResponse.<LoanApplicationResponse>builder()
+                .content(page.stream().map(loanApplicationMapper::toResponse).toList())
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .totalElements(total)
+                .build();
+    }
+
+    public String getStatusText(LoanApplicationStatus status) {
         return switch (status) {
             case NEW -> "Hồ sơ mới";
             case PENDING -> "Đang xử lý";
@@ -0,0 +1,48 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.configuration.MailSenderProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Token bucket shared by all send workers so the SMTP provider's rate limit holds across connections
+@Component
+public class MailRateLimiter {
+    private final double permitsPerNano;
+    private final double capacity;
+    private double available;
+    private long lastRefill;
+
+    public MailRateLimiter(MailSenderProperties properties) {
+        this.permitsPerNano = properties.getRateLimit() / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, properties.getBurst());
+        this.available = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        if (permitsPerNano <= 0) {
+            return;
+        }
+        long waitNanos;
+        while ((waitNanos = tryAcquire()) > 0) {
+            LockSupport.parkNanos(waitNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    // Takes a permit and returns 0, or returns how long to wait before one is available
+    private synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        if (available >= 1) {
+            available -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - available) / permitsPerNano);
+    }
+}
@@ -2,7 +2,6 @@ package com.vdt_project1.loan_management.service;
 
 import com.vdt_project1.loan_management.dto.request.NotificationRequest;
 import com.vdt_project1.loan_management.dto.response.NotificationResponse;
-import com.vdt_project1.loan_management.dto.response.UserResponse;
 import com.vdt_project1.loan_management.entity.LoanApplication;
 import com.vdt_project1.loan_management.entity.Notification;
 import com.vdt_project1.loan_management.entity.User;
@@ -47,7 +46,7 @@ public class NotificationService {
 
     @Transactional
     public NotificationResponse createNotification(NotificationRequest request) {
-        UserResponse userResponse = userService.getMyProfile();
+        Long userId = userService.getCurrentUserId();
 
         Notification notification = notificationMapper.toEntity(request);
 
@@ -56,7 +55,7 @@ public class NotificationService {
         }
         // set user and loan application
         notification.setLoanApplication(findLoanApplicationById(request.getApplicationId()));
-        notification.setUser(findUserById(userResponse.getId()));
+        notification.setUser(findUserById(userId));
         notification.setCreatedAt(LocalDateTime.now());
 
         Notification savedNotification = notificationRepository.save(notification);
@@ -66,10 +65,10 @@ public class NotificationService {
 
     @Transactional(readOnly = true)
     public Page<NotificationResponse> getAllNotifications(Pageable pageable) {
-        UserResponse userResponse = userService.getMyProfile();
-        log.info("Fetching all notifications for user ID: {}", userResponse.getId());
+        Long userId = userService.getCurrentUserId();
+        log.info("Fetching all notifications for user ID: {}", userId);
 
-        return notificationRepository.findByUserId(userResponse.getId(), pageable)
+        return notificationRepository.findByUserId(userId, pageable)
                 .map(notificationMapper::toResponse);
     }
 
@@ -86,29 +85,29 @@ public class NotificationService {
     @Transactional
     // This method is used to mark all notifications as read
     public void markAllNotificationsAsRead() {
-        UserResponse userResponse = userService.getMyProfile();
-        log.info("Marking all notifications as read for user ID: {}", userResponse.getId());
+        Long userId = userService.getCurrentUserId();
+        log.info("Marking all notifications as read for user ID: {}", userId);
 
-        Page<Notification> notifications = notificationRepository.findByUserId(userResponse.getId(),
+        Page<Notification> notifications = notificationRepository.findByUserId(userId,
                 Pageable.unpaged());
         if (notifications.hasContent()) {
             notifications.forEach(notification -> {
                 notification.setIsRead(true);
                 notificationRepository.save(notification);
             });
-            log.info("All notifications marked as read for user ID: {}", userResponse.getId());
+            log.info("All notifications marked as read for user ID: {}", userId);
         } else {
-            log.info("No notifications found for user ID: {}", userResponse.getId());
+            log.info("No notifications found for user ID: {}", userId);
         }
     }
 
     @Transactional
     public long getUnreadNotificationsCount() {
-        UserResponse userResponse = userService.getMyProfile();
-        log.info("Fetching unread notifications count for user ID: {}", userResponse.getId());
+        Long userId = userService.getCurrentUserId();
+        log.info("Fetching unread notifications count for user ID: {}", userId);
 
-        long count = notificationRepository.countByUserIdAndIsReadFalse(userResponse.getId());
-        log.info("Unread notifications count for user ID {}: {}", userResponse.getId(), count);
+        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        log.info("Unread notifications count for user ID {}: {}", userId, count);
         return count;
     }
 
@@ -21,10 +21,13 @@ import java.util.List;
 public class PermissionService {
     PermissionRepository permissionRepository;
     PermissionMapper permissionMapper;
+    RoleScopeCache roleScopeCache;
 
     public PermissionResponse createPermission(PermissionRequest permissionRequest) {
         Permission permission = permissionMapper.toPermission(permissionRequest);
-        return permissionMapper.toPermissionResponse(permissionRepository.save(permission));
+        Permission savedPermission = permissionRepository.save(permission);
+        roleScopeCache.rebuild();
+        return permissionMapper.toPermissionResponse(savedPermission);
     }
 
     public List<PermissionResponse> getAllPermissions() {
@@ -36,5 +39,6 @@ public class PermissionService {
 
     public void deletePermission(String permissionName) {
         permissionRepository.deleteById(permissionName);
+        roleScopeCache.rebuild();
     }
 }
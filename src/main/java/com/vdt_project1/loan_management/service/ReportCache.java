@@ -0,0 +1,161 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.event.ReportDataChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache for report results such as the dashboard summary.
+ *
+ * Entries expire after the TTL and are invalidated after any committed change
+ * to loan applications or disbursements. An expired or invalidated entry is
+ * still served while a single background refresh recomputes it
+ * (stale-while-revalidate), unless it is older than max-stale, in which case
+ * the caller waits for the recomputation. Concurrent misses for the same key
+ * share one computation.
+ */
+@Slf4j
+@Component
+public class ReportCache {
+
+    private record Entry(Object value, long computedAt, long generation) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    // Bumped on every invalidation, entries computed under an older generation are stale
+    private final AtomicLong generation = new AtomicLong();
+    private final ThreadPoolExecutor refreshExecutor;
+    private final long ttlMillis;
+    private final long maxStaleMillis;
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final MeterRegistry meterRegistry;
+
+    public ReportCache(MeterRegistry meterRegistry,
+            @Value("${app.report-cache.ttl:60}") long ttlSeconds,
+            @Value("${app.report-cache.max-stale:600}") long maxStaleSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxStaleMillis = maxStaleSeconds * 1000;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(
+                1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-cache-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.hits = requests(meterRegistry, "hit");
+        this.staleHits = requests(meterRegistry, "stale");
+        this.misses = requests(meterRegistry, "miss");
+        meterRegistry.gauge("report.cache.hit.ratio", this, ReportCache::hitRatio);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+
+        if (entry != null && isFresh(entry, now)) {
+            hits.increment();
+            return (T) entry.value();
+        }
+        if (entry != null && now - entry.computedAt() < maxStaleMillis) {
+            staleHits.increment();
+            load(key, loader, refreshExecutor);
+            return (T) entry.value();
+        }
+
+        misses.increment();
+        try {
+            return (T) load(key, loader, Runnable::run).join().value();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReportDataChanged(ReportDataChangedEvent event) {
+        log.debug("Invalidating report cache: {} (application {})", event.reason(), event.applicationId());
+        invalidate();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    // Only one computation per key runs at a time, other callers join it
+    private CompletableFuture<Entry> load(String key, Supplier<?> loader, Executor executor) {
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = loading.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    long startedGeneration = generation.get();
+                    Entry entry = Timer.builder("report.cache.load")
+                            .tag("report", key)
+                            .register(meterRegistry)
+                            .record(() -> new Entry(loader.get(), System.currentTimeMillis(), startedGeneration));
+                    entries.put(key, entry);
+                    created.complete(entry);
+                } catch (RuntimeException e) {
+                    log.error("Failed to compute report {}", key, e);
+                    created.completeExceptionally(e);
+                } finally {
+                    loading.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private boolean isFresh(Entry entry, long now) {
+        return entry.generation() == generation.get() && now - entry.computedAt() < ttlMillis;
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + staleHits.count() + misses.count();
+        return total == 0 ? 0.0 : (hits.count() + staleHits.count()) / total;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("report.cache.requests")
+                .description("Report cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
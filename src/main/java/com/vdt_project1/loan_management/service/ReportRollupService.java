@@ -0,0 +1,356 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.entity.*;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.event.ReportDataChangedEvent;
+import com.vdt_project1.loan_management.repository.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Pre-aggregated reporting rollups: application counts per status and per
+ * product, and hourly fact rows for applications (by creation hour, product and
+ * current status) and disbursements (by transaction hour and product) that
+ * TimeSeriesReportService buckets into report periods.
+ *
+ * The rollups are adjusted with delta updates inside the transaction that
+ * changes the loan application or disbursement, so they commit or roll back
+ * together with the change and report endpoints read a handful of rows instead
+ * of aggregating the base tables.
+ */
+@Slf4j
+@Service
+public class ReportRollupService {
+    public static final Set<LoanApplicationStatus> APPROVED_STATUSES = EnumSet.of(
+            LoanApplicationStatus.APPROVED,
+            LoanApplicationStatus.PARTIALLY_DISBURSED,
+            LoanApplicationStatus.FULLY_DISBURSED);
+
+    private final ReportStatusCountRepository statusCountRepository;
+    private final ReportProductCountRepository productCountRepository;
+    private final ReportApplicationFactRepository applicationFactRepository;
+    private final ReportDisbursementFactRepository disbursementFactRepository;
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final DisbursementTransactionRepository disbursementTransactionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReportRollupService(ReportStatusCountRepository statusCountRepository,
+            ReportProductCountRepository productCountRepository,
+            ReportApplicationFactRepository applicationFactRepository,
+            ReportDisbursementFactRepository disbursementFactRepository,
+            LoanApplicationRepository loanApplicationRepository,
+            DisbursementTransactionRepository disbursementTransactionRepository,
+            ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.statusCountRepository = statusCountRepository;
+        this.productCountRepository = productCountRepository;
+        this.applicationFactRepository = applicationFactRepository;
+        this.disbursementFactRepository = disbursementFactRepository;
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.disbursementTransactionRepository = disbursementTransactionRepository;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // The parts of a loan application that the rollups depend on
+    public record ApplicationFacts(LoanApplicationStatus status, Long productId, Long requestedAmount,
+            LocalDateTime createdHour) {
+
+        public static ApplicationFacts of(LoanApplication application) {
+            return new ApplicationFacts(
+                    application.getStatus(),
+                    application.getLoanProduct() != null ? application.getLoanProduct().getId() : null,
+                    application.getRequestedAmount(),
+                    application.getCreatedAt() != null
+                            ? application.getCreatedAt().truncatedTo(ChronoUnit.HOURS)
+                            : null);
+        }
+
+        boolean hasFact() {
+            return status != null && productId != null && createdHour != null;
+        }
+
+        long amount() {
+            return requestedAmount != null ? requestedAmount : 0L;
+        }
+    }
+
+    // Rollup rows that bulk deltas are summed into
+    private record ApplicationFactKey(LocalDateTime hour, Long productId, LoanApplicationStatus status) {
+
+        static ApplicationFactKey of(ApplicationFacts facts) {
+            return new ApplicationFactKey(facts.createdHour(), facts.productId(), facts.status());
+        }
+    }
+
+    private record DisbursementFactKey(LocalDateTime hour, Long productId) {
+    }
+
+    @Transactional
+    public void applicationCreated(LoanApplication application) {
+        apply(null, ApplicationFacts.of(application));
+    }
+
+    // before must be captured before the entity is modified
+    @Transactional
+    public void applicationChanged(ApplicationFacts before, LoanApplication application) {
+        apply(before, ApplicationFacts.of(application));
+    }
+
+    @Transactional
+    public void applicationDeleted(LoanApplication application) {
+        apply(ApplicationFacts.of(application), null);
+    }
+
+    // Reversal entries are ledger entries too, they carry a negative amount and count as -1
+    @Transactional
+    public void disbursementCreated(DisbursementTransaction disbursement, LoanApplication application) {
+        adjustDisbursed(disbursement, application, disbursement.isReversal() ? -1 : 1);
+    }
+
+    /**
+     * Bulk variants for imports. Deltas are summed per rollup row first, so a
+     * batch touching thousands of applications issues one update per affected
+     * row instead of one per application.
+     */
+    @Transactional
+    public void applicationsChanged(List<ApplicationFacts> before, List<ApplicationFacts> after) {
+        Map<LoanApplicationStatus, Long> statusDeltas = new EnumMap<>(LoanApplicationStatus.class);
+        Map<ApplicationFactKey, long[]> factDeltas = new HashMap<>();
+        for (int i = 0; i < before.size(); i++) {
+            ApplicationFacts old = before.get(i);
+            ApplicationFacts updated = after.get(i);
+            if (Objects.equals(old, updated)) {
+                continue;
+            }
+            if (old.status() != updated.status()) {
+                Optional.ofNullable(old.status()).ifPresent(status -> statusDeltas.merge(status, -1L, Long::sum));
+                Optional.ofNullable(updated.status()).ifPresent(status -> statusDeltas.merge(status, 1L, Long::sum));
+            }
+            addFactDelta(factDeltas, old, -1);
+            addFactDelta(factDeltas, updated, 1);
+        }
+        statusDeltas.forEach((status, delta) -> {
+            if (delta != 0) {
+                incrementStatus(status, delta);
+            }
+        });
+        factDeltas.forEach((key, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                incrementApplicationFact(key, delta[0], delta[1]);
+            }
+        });
+    }
+
+    @Transactional
+    public void disbursementsCreated(List<DisbursementTransaction> disbursements,
+            Map<Long, LoanApplication> applications) {
+        Map<DisbursementFactKey, long[]> factDeltas = new HashMap<>();
+        for (DisbursementTransaction disbursement : disbursements) {
+            LoanApplication application = applications.get(disbursement.getApplicationId());
+            if (disbursement.getTransactionDate() == null || disbursement.getAmount() == null
+                    || application == null || application.getLoanProduct() == null) {
+                continue;
+            }
+            long[] delta = factDeltas.computeIfAbsent(new DisbursementFactKey(
+                    disbursement.getTransactionDate().truncatedTo(ChronoUnit.HOURS),
+                    application.getLoanProduct().getId()), key -> new long[2]);
+            delta[0] += disbursement.isReversal() ? -1 : 1;
+            delta[1] += disbursement.getAmount();
+        }
+        factDeltas.forEach((key, delta) -> incrementDisbursementFact(key.hour(), key.productId(), delta[0], delta[1]));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<LoanApplicationStatus, Long> getStatusCounts() {
+        Map<LoanApplicationStatus, Long> counts = new EnumMap<>(LoanApplicationStatus.class);
+        statusCountRepository.findAll().forEach(row -> counts.put(row.getStatus(), row.getApplicationCount()));
+        return counts;
+    }
+
+    // Application counts keyed by product name, products sharing a name are merged
+    @Transactional(readOnly = true)
+    public Map<String, Long> getProductCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : productCountRepository.findCountsWithProductName()) {
+            counts.merge((String) row[0], (Long) row[1], Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Backfills each rollup table that is still empty, so a table added after
+     * the others is filled on the first start that knows about it. Also drops
+     * report_daily_amounts, the daily rollup the hourly fact tables replaced,
+     * which ddl-auto leaves behind.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS report_daily_amounts");
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> rebuilt = new ArrayList<>();
+            if (statusCountRepository.count() == 0) {
+                rebuildCounts();
+                rebuilt.add("counts");
+            }
+            if (applicationFactRepository.count() == 0) {
+                rebuildApplicationFacts();
+                rebuilt.add("application facts");
+            }
+            if (disbursementFactRepository.count() == 0) {
+                rebuildDisbursementFacts();
+                rebuilt.add("disbursement facts");
+            }
+            if (!rebuilt.isEmpty()) {
+                log.info("Backfilled empty reporting rollups: {}", String.join(", ", rebuilt));
+                eventPublisher.publishEvent(new ReportDataChangedEvent(null, "rollups rebuilt"));
+            }
+        });
+    }
+
+    /**
+     * Recomputes every rollup from the base tables. Writes that commit while the
+     * rebuild runs may be lost, so this is meant for backfill and repair.
+     */
+    @Transactional
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuildCounts();
+        int applicationFacts = rebuildApplicationFacts();
+        int disbursementFacts = rebuildDisbursementFacts();
+        eventPublisher.publishEvent(new ReportDataChangedEvent(null, "rollups rebuilt"));
+        log.info("Reporting rollups rebuilt in {} ms ({} application facts, {} disbursement facts)",
+                System.currentTimeMillis() - start, applicationFacts, disbursementFacts);
+    }
+
+    private void rebuildCounts() {
+        statusCountRepository.deleteAllInBatch();
+        productCountRepository.deleteAllInBatch();
+
+        Map<LoanApplicationStatus, Long> statusCounts = new EnumMap<>(LoanApplicationStatus.class);
+        for (LoanApplicationStatus status : LoanApplicationStatus.values()) {
+            statusCounts.put(status, 0L);
+        }
+        for (Object[] row : loanApplicationRepository.getApplicationCountByStatus()) {
+            statusCounts.put((LoanApplicationStatus) row[0], (Long) row[1]);
+        }
+        statusCountRepository.saveAll(statusCounts.entrySet().stream()
+                .map(e -> new ReportStatusCount(e.getKey(), e.getValue()))
+                .toList());
+
+        productCountRepository.saveAll(loanApplicationRepository.getApplicationCountByProductId().stream()
+                .map(row -> new ReportProductCount((Long) row[0], (Long) row[1]))
+                .toList());
+    }
+
+    // Rows: year, month, day, hour, product id, status, count, amount
+    private int rebuildApplicationFacts() {
+        applicationFactRepository.deleteAllInBatch();
+        List<ReportApplicationFact> facts = loanApplicationRepository.getApplicationFactsByHour().stream()
+                .map(row -> ReportApplicationFact.builder()
+                        .bucketStart(hourOf(row))
+                        .productId((Long) row[4])
+                        .status((LoanApplicationStatus) row[5])
+                        .applicationCount((Long) row[6])
+                        .requestedAmount((Long) row[7])
+                        .build())
+                .toList();
+        applicationFactRepository.saveAll(facts);
+        return facts.size();
+    }
+
+    // Rows: year, month, day, hour, product id, count, amount
+    private int rebuildDisbursementFacts() {
+        disbursementFactRepository.deleteAllInBatch();
+        List<ReportDisbursementFact> facts = disbursementTransactionRepository.getDisbursementFactsByHour().stream()
+                .map(row -> ReportDisbursementFact.builder()
+                        .bucketStart(hourOf(row))
+                        .productId((Long) row[4])
+                        .disbursedCount((Long) row[5])
+                        .disbursedAmount((Long) row[6])
+                        .build())
+                .toList();
+        disbursementFactRepository.saveAll(facts);
+        return facts.size();
+    }
+
+    private void apply(ApplicationFacts before, ApplicationFacts after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (before == null || after == null || before.status() != after.status()) {
+            if (before != null && before.status() != null) {
+                incrementStatus(before.status(), -1);
+            }
+            if (after != null && after.status() != null) {
+                incrementStatus(after.status(), 1);
+            }
+        }
+        if (before == null || after == null || !Objects.equals(before.productId(), after.productId())) {
+            if (before != null && before.productId() != null) {
+                incrementProduct(before.productId(), -1);
+            }
+            if (after != null && after.productId() != null) {
+                incrementProduct(after.productId(), 1);
+            }
+        }
+        if (before != null && before.hasFact()) {
+            incrementApplicationFact(ApplicationFactKey.of(before), -1, -before.amount());
+        }
+        if (after != null && after.hasFact()) {
+            incrementApplicationFact(ApplicationFactKey.of(after), 1, after.amount());
+        }
+    }
+
+    private void adjustDisbursed(DisbursementTransaction disbursement, LoanApplication application, int sign) {
+        LocalDateTime transactionDate = disbursement.getTransactionDate();
+        if (transactionDate == null || disbursement.getAmount() == null || application.getLoanProduct() == null) {
+            return;
+        }
+        incrementDisbursementFact(transactionDate.truncatedTo(ChronoUnit.HOURS), application.getLoanProduct().getId(),
+                sign, disbursement.getAmount());
+    }
+
+    private void incrementDisbursementFact(LocalDateTime hour, Long productId, long count, long amount) {
+        disbursementFactRepository.increment(hour, productId, count, amount);
+    }
+
+    private void incrementStatus(LoanApplicationStatus status, long delta) {
+        statusCountRepository.increment(status.name(), delta);
+    }
+
+    private void incrementProduct(Long productId, long delta) {
+        productCountRepository.increment(productId, delta);
+    }
+
+    private void addFactDelta(Map<ApplicationFactKey, long[]> deltas, ApplicationFacts facts, int sign) {
+        if (facts.hasFact()) {
+            long[] delta = deltas.computeIfAbsent(ApplicationFactKey.of(facts), key -> new long[2]);
+            delta[0] += sign;
+            delta[1] += sign * facts.amount();
+        }
+    }
+
+    private void incrementApplicationFact(ApplicationFactKey key, long count, long amount) {
+        applicationFactRepository.increment(key.hour(), key.productId(), key.status().name(), count, amount);
+    }
+
+    private LocalDateTime hourOf(Object[] row) {
+        return LocalDateTime.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+                ((Number) row[2]).intValue(), ((Number) row[3]).intValue(), 0);
+    }
+}
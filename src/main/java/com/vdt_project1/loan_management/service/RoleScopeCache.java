@@ -0,0 +1,89 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.entity.Permission;
+import com.vdt_project1.loan_management.entity.Role;
+import com.vdt_project1.loan_management.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Precomputed scope string and authority set for every role, so issuing a token
+ * and authenticating a request never walk the roles_permissions join table.
+ * <p>
+ * The snapshot is immutable and swapped as a whole; RoleService and
+ * PermissionService call {@link #rebuild()} after every mutation.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class RoleScopeCache {
+
+    public record RoleScope(String scope, Set<GrantedAuthority> authorities) {
+    }
+
+    private record Snapshot(Map<String, RoleScope> byRole, Map<String, RoleScope> byScope) {
+    }
+
+    RoleRepository roleRepository;
+
+    @NonFinal
+    volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<String, RoleScope> byRole = new HashMap<>();
+        Map<String, RoleScope> byScope = new HashMap<>();
+
+        for (Role role : roleRepository.findAllWithPermissions()) {
+            RoleScope roleScope = buildRoleScope(role);
+            byRole.put(role.getName(), roleScope);
+            byScope.putIfAbsent(roleScope.scope(), roleScope);
+        }
+
+        snapshot = new Snapshot(Map.copyOf(byRole), Map.copyOf(byScope));
+        log.info("Role scope cache rebuilt with {} roles", byRole.size());
+    }
+
+    public RoleScope get(String roleName) {
+        RoleScope roleScope = snapshot.byRole().get(roleName);
+        if (roleScope == null) {
+            // Role created outside RoleService (e.g. at startup), pick it up once
+            rebuild();
+            roleScope = snapshot.byRole().get(roleName);
+        }
+        return roleScope;
+    }
+
+    public RoleScope findByScope(String scope) {
+        return scope == null ? null : snapshot.byScope().get(scope);
+    }
+
+    private RoleScope buildRoleScope(Role role) {
+        StringJoiner stringJoiner = new StringJoiner(" ");
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+
+        stringJoiner.add("ROLE_" + role.getName());
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
+        if (role.getPermissions() != null) {
+            role.getPermissions().stream()
+                    .map(Permission::getName)
+                    .sorted()
+                    .forEach(permission -> {
+                        stringJoiner.add(permission);
+                        authorities.add(new SimpleGrantedAuthority(permission));
+                    });
+        }
+
+        return new RoleScope(stringJoiner.toString(), Collections.unmodifiableSet(authorities));
+    }
+}
@@ -26,6 +26,7 @@ public class RoleService {
     RoleRepository roleRepository;
     PermissionRepository permissionRepository;
     RoleMapper roleMapper;
+    RoleScopeCache roleScopeCache;
 
     public RoleResponse createRole(RoleRequest roleRequest) {
         Role role = roleMapper.toRole(roleRequest);
@@ -35,11 +36,13 @@ public class RoleService {
             role.setPermissions(new HashSet<>(permissions));
         }
 
-        return roleMapper.toRoleResponse(roleRepository.save(role));
+        Role savedRole = roleRepository.save(role);
+        roleScopeCache.rebuild();
+        return roleMapper.toRoleResponse(savedRole);
     }
 
     public List<RoleResponse> getAllRoles() {
-        List<Role> roles = roleRepository.findAll();
+        List<Role> roles = roleRepository.findAllWithPermissions();
         return roles.stream()
                 .map(roleMapper::toRoleResponse)
                 .toList();
@@ -66,10 +69,13 @@ public class RoleService {
             updatedRole.setPermissions(new HashSet<>(permissions));
         }
 
-        return roleMapper.toRoleResponse(roleRepository.save(updatedRole));
+        Role savedRole = roleRepository.save(updatedRole);
+        roleScopeCache.rebuild();
+        return roleMapper.toRoleResponse(savedRole);
     }
 
     public void deleteRole(String roleName) {
         roleRepository.deleteById(roleName);
+        roleScopeCache.rebuild();
     }
 }
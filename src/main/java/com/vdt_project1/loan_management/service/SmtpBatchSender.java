@@ -0,0 +1,90 @@
+package com.vdt_project1.loan_management.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Sends a batch of messages over one pooled connection, honouring the provider rate limit
+@Slf4j
+@Component
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class SmtpBatchSender {
+    SmtpTransportPool transportPool;
+    MailRateLimiter rateLimiter;
+    Counter sentCounter;
+    Counter failedCounter;
+    Timer sendTimer;
+
+    public SmtpBatchSender(SmtpTransportPool transportPool, MailRateLimiter rateLimiter,
+            MeterRegistry meterRegistry) {
+        this.transportPool = transportPool;
+        this.rateLimiter = rateLimiter;
+        this.sentCounter = Counter.builder("mail.sent")
+                .description("Emails accepted by the SMTP server")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.failed")
+                .description("Emails the SMTP server did not accept")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.send")
+                .description("Time to hand one email to the SMTP server")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns one entry per message: null when it was sent, otherwise the error.
+     * A broken connection fails only the current message; the next one reconnects.
+     */
+    public List<Exception> send(List<MimeMessage> messages) throws InterruptedException {
+        List<Exception> results = new ArrayList<>(messages.size());
+        SmtpTransportPool.PooledTransport transport;
+        try {
+            transport = transportPool.borrow();
+        } catch (MessagingException e) {
+            failedCounter.increment(messages.size());
+            messages.forEach(message -> results.add(e));
+            return results;
+        }
+
+        try {
+            for (MimeMessage message : messages) {
+                rateLimiter.acquire();
+                results.add(sendOne(transport, message));
+            }
+        } finally {
+            transportPool.release(transport);
+        }
+        return results;
+    }
+
+    private Exception sendOne(SmtpTransportPool.PooledTransport transport, MimeMessage message) {
+        long start = System.nanoTime();
+        try {
+            transport.ensureConnected();
+            message.saveChanges();
+            transport.get().sendMessage(message, message.getAllRecipients());
+            transport.recordSent();
+            sentCounter.increment();
+            return null;
+        } catch (SendFailedException e) {
+            // Recipient rejected, the connection itself is still usable
+            failedCounter.increment();
+            return e;
+        } catch (MessagingException e) {
+            failedCounter.increment();
+            transport.close();
+            return e;
+        } finally {
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
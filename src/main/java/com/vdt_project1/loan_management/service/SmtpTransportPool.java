@@ -0,0 +1,111 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.configuration.MailSenderProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small pool of authenticated SMTP connections. A connection is opened on first
+ * use and kept across batches, so TCP, STARTTLS and AUTH are paid once per
+ * connection instead of once per message.
+ */
+@Slf4j
+@Component
+public class SmtpTransportPool {
+    private final JavaMailSenderImpl mailSender;
+    private final BlockingQueue<PooledTransport> idle;
+    private final int maxMessagesPerConnection;
+    private final long borrowTimeoutMillis;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender, MailSenderProperties properties,
+            MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.maxMessagesPerConnection = properties.getMaxMessagesPerConnection();
+        this.borrowTimeoutMillis = properties.getBorrowTimeout();
+        this.idle = new ArrayBlockingQueue<>(properties.getPoolSize());
+        for (int i = 0; i < properties.getPoolSize(); i++) {
+            idle.add(new PooledTransport());
+        }
+
+        Gauge.builder("mail.transport.pool.idle", idle, BlockingQueue::size)
+                .description("SMTP connections not currently borrowed by a sender")
+                .register(meterRegistry);
+    }
+
+    public PooledTransport borrow() throws MessagingException, InterruptedException {
+        PooledTransport transport = idle.poll(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (transport == null) {
+            throw new MessagingException("No SMTP connection available within " + borrowTimeoutMillis + " ms");
+        }
+        try {
+            // isConnected() costs a NOOP round trip, so it is checked once per batch rather than per message
+            if (transport.transport != null && !transport.transport.isConnected()) {
+                transport.close();
+            }
+            transport.ensureConnected();
+        } catch (MessagingException | RuntimeException e) {
+            idle.add(transport);
+            throw e;
+        }
+        return transport;
+    }
+
+    public void release(PooledTransport transport) {
+        if (transport.sentOnConnection >= maxMessagesPerConnection) {
+            transport.close();
+        }
+        idle.add(transport);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        idle.forEach(PooledTransport::close);
+    }
+
+    public class PooledTransport {
+        private Transport transport;
+        private int sentOnConnection;
+
+        public Transport get() {
+            return transport;
+        }
+
+        public void recordSent() {
+            sentOnConnection++;
+        }
+
+        // Drops the connection, the next borrow reconnects
+        public void close() {
+            if (transport != null) {
+                try {
+                    transport.close();
+                } catch (MessagingException e) {
+                    log.debug("Error closing SMTP connection: {}", e.getMessage());
+                }
+            }
+            transport = null;
+            sentOnConnection = 0;
+        }
+
+        public void ensureConnected() throws MessagingException {
+            if (transport != null) {
+                return;
+            }
+            Transport newTransport = mailSender.getSession().getTransport(mailSender.getProtocol());
+            newTransport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(),
+                    mailSender.getPassword());
+            transport = newTransport;
+            log.debug("Opened SMTP connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        }
+    }
+}
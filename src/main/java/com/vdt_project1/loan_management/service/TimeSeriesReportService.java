@@ -0,0 +1,242 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.request.TimeSeriesReportRequest;
+import com.vdt_project1.loan_management.dto.response.TimeSeriesPointResponse;
+import com.vdt_project1.loan_management.dto.response.TimeSeriesReportResponse;
+import com.vdt_project1.loan_management.dto.response.TimeSeriesResponse;
+import com.vdt_project1.loan_management.entity.LoanProduct;
+import com.vdt_project1.loan_management.entity.ReportApplicationFact;
+import com.vdt_project1.loan_management.entity.ReportDisbursementFact;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.enums.ReportDimension;
+import com.vdt_project1.loan_management.enums.ReportGranularity;
+import com.vdt_project1.loan_management.enums.ReportMetric;
+import com.vdt_project1.loan_management.exception.AppException;
+import com.vdt_project1.loan_management.exception.ErrorCode;
+import com.vdt_project1.loan_management.repository.LoanProductRepository;
+import com.vdt_project1.loan_management.repository.ReportApplicationFactRepository;
+import com.vdt_project1.loan_management.repository.ReportDisbursementFactRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Time-series reports over the hourly fact tables maintained by
+ * ReportRollupService.
+ *
+ * The fact tables are plain tables, not partitioned ones: one row per hour and
+ * key, with a unique index that leads with bucket_start. Rows are read for the
+ * requested range only through that index, shifted from the storage time zone
+ * (the JVM zone the timestamps were written in) into the requested zone, and
+ * summed into day, week, month or quarter periods, optionally split by product
+ * or status. Every series has one point per period, periods without data are
+ * returned as zero. Because facts are hourly, zones whose offset is not a whole
+ * number of hours away from the storage zone are bucketed to the nearest hour.
+ */
+@Slf4j
+@Service
+public class TimeSeriesReportService {
+    static final int MAX_PERIODS = 2000;
+    static final String ALL_SERIES = "ALL";
+
+    private final ReportApplicationFactRepository applicationFactRepository;
+    private final ReportDisbursementFactRepository disbursementFactRepository;
+    private final LoanProductRepository loanProductRepository;
+    private final ZoneId storageZone = ZoneId.systemDefault();
+    private final ZoneId defaultZone;
+
+    public TimeSeriesReportService(ReportApplicationFactRepository applicationFactRepository,
+            ReportDisbursementFactRepository disbursementFactRepository,
+            LoanProductRepository loanProductRepository,
+            @Value("${app.reports.time-zone:}") String defaultZone) {
+        this.applicationFactRepository = applicationFactRepository;
+        this.disbursementFactRepository = disbursementFactRepository;
+        this.loanProductRepository = loanProductRepository;
+        this.defaultZone = defaultZone.isBlank() ? storageZone : ZoneId.of(defaultZone);
+    }
+
+    // One fact row reduced to what bucketing needs
+    private record Fact(LocalDateTime hour, Long productId, LoanApplicationStatus status, long count, long amount) {
+    }
+
+    @Transactional(readOnly = true)
+    public TimeSeriesReportResponse getTimeSeries(TimeSeriesReportRequest request) {
+        ReportMetric metric = request.getMetric();
+        ReportGranularity granularity = Optional.ofNullable(request.getGranularity()).orElse(ReportGranularity.DAY);
+        ReportDimension dimension = Optional.ofNullable(request.getDimension()).orElse(ReportDimension.NONE);
+        if (metric == null || (metric == ReportMetric.DISBURSED_AMOUNT && dimension == ReportDimension.STATUS)) {
+            throw new AppException(ErrorCode.INVALID_REPORT_QUERY);
+        }
+        ZoneId zone = resolveZone(request.getTimeZone());
+        LocalDate startDate = request.getStartDate();
+        LocalDate endDate = request.getEndDate();
+        List<LocalDate> periods = periods(startDate, endDate, granularity);
+
+        // Requested dates are inclusive days in the report zone, facts are stored in the storage zone
+        LocalDateTime from = toStorage(startDate.atStartOfDay(zone));
+        LocalDateTime to = toStorage(endDate.plusDays(1).atStartOfDay(zone));
+        List<Long> productIds = request.getProductId() == null ? List.of() : request.getProductId();
+        Set<LoanApplicationStatus> statuses = statusesFor(metric, request.getStatus());
+        List<Fact> facts = loadFacts(metric, from, to, productIds, statuses);
+
+        // series key -> period start -> [amount, count]
+        Map<String, Map<LocalDate, long[]>> sums = new TreeMap<>();
+        seriesKeys(dimension, productIds, statuses).forEach(key -> sums.put(key, new HashMap<>()));
+        for (Fact fact : facts) {
+            LocalDate day = fact.hour().atZone(storageZone).withZoneSameInstant(zone).toLocalDate();
+            String key = switch (dimension) {
+                case NONE -> ALL_SERIES;
+                case PRODUCT -> String.valueOf(fact.productId());
+                case STATUS -> fact.status().name();
+            };
+            long[] sum = sums.computeIfAbsent(key, k -> new HashMap<>())
+                    .computeIfAbsent(periodStart(day, granularity), p -> new long[2]);
+            sum[0] += fact.amount();
+            sum[1] += fact.count();
+        }
+
+        Map<String, String> labels = labels(dimension, sums.keySet());
+        List<TimeSeriesResponse> series = sums.entrySet().stream()
+                .map(entry -> toSeries(entry.getKey(), labels.getOrDefault(entry.getKey(), entry.getKey()),
+                        entry.getValue(), periods))
+                .toList();
+
+        log.info("Built {} report by {} from {} fact rows ({} series x {} periods)", metric, granularity,
+                facts.size(), series.size(), periods.size());
+        return TimeSeriesReportResponse.builder()
+                .metric(metric)
+                .granularity(granularity)
+                .dimension(dimension)
+                .timeZone(zone.getId())
+                .startDate(startDate)
+                .endDate(endDate)
+                .series(series)
+                .build();
+    }
+
+    private List<Fact> loadFacts(ReportMetric metric, LocalDateTime from, LocalDateTime to, List<Long> productIds,
+            Set<LoanApplicationStatus> statuses) {
+        if (metric == ReportMetric.DISBURSED_AMOUNT) {
+            List<ReportDisbursementFact> rows = productIds.isEmpty()
+                    ? disbursementFactRepository.findInRange(from, to)
+                    : disbursementFactRepository.findInRangeForProducts(from, to, productIds);
+            return rows.stream()
+                    .map(f -> new Fact(f.getBucketStart(), f.getProductId(), null, f.getDisbursedCount(),
+                            f.getDisbursedAmount()))
+                    .toList();
+        }
+        List<ReportApplicationFact> rows = productIds.isEmpty()
+                ? applicationFactRepository.findInRange(from, to, statuses)
+                : applicationFactRepository.findInRangeForProducts(from, to, statuses, productIds);
+        return rows.stream()
+                .map(f -> new Fact(f.getBucketStart(), f.getProductId(), f.getStatus(), f.getApplicationCount(),
+                        f.getRequestedAmount()))
+                .toList();
+    }
+
+    // Approved amounts only ever include the approved statuses, whatever the filter says
+    private Set<LoanApplicationStatus> statusesFor(ReportMetric metric, List<LoanApplicationStatus> requested) {
+        Set<LoanApplicationStatus> statuses = requested == null || requested.isEmpty()
+                ? EnumSet.allOf(LoanApplicationStatus.class)
+                : EnumSet.copyOf(requested);
+        if (metric == ReportMetric.APPROVED_AMOUNT) {
+            statuses.retainAll(ReportRollupService.APPROVED_STATUSES);
+        }
+        return statuses;
+    }
+
+    // Series that appear even without data, so filtered dimensions are always present
+    private List<String> seriesKeys(ReportDimension dimension, List<Long> productIds,
+            Set<LoanApplicationStatus> statuses) {
+        return switch (dimension) {
+            case NONE -> List.of(ALL_SERIES);
+            case PRODUCT -> productIds.stream().map(String::valueOf).toList();
+            case STATUS -> statuses.stream().map(Enum::name).toList();
+        };
+    }
+
+    private Map<String, String> labels(ReportDimension dimension, Set<String> keys) {
+        if (dimension != ReportDimension.PRODUCT || keys.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = keys.stream().map(Long::valueOf).toList();
+        return loanProductRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(p -> String.valueOf(p.getId()), LoanProduct::getName));
+    }
+
+    private TimeSeriesResponse toSeries(String key, String label, Map<LocalDate, long[]> sums,
+            List<LocalDate> periods) {
+        long[] empty = new long[2];
+        List<TimeSeriesPointResponse> points = periods.stream()
+                .map(period -> {
+                    long[] sum = sums.getOrDefault(period, empty);
+                    return TimeSeriesPointResponse.builder()
+                            .periodStart(period)
+                            .amount(sum[0])
+                            .count(sum[1])
+                            .build();
+                })
+                .toList();
+        return TimeSeriesResponse.builder()
+                .key(key)
+                .label(label)
+                .totalAmount(points.stream().mapToLong(TimeSeriesPointResponse::getAmount).sum())
+                .totalCount(points.stream().mapToLong(TimeSeriesPointResponse::getCount).sum())
+                .points(points)
+                .build();
+    }
+
+    private List<LocalDate> periods(LocalDate startDate, LocalDate endDate, ReportGranularity granularity) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new AppException(ErrorCode.INVALID_REPORT_RANGE);
+        }
+        Function<LocalDate, LocalDate> next = switch (granularity) {
+            case DAY -> d -> d.plusDays(1);
+            case WEEK -> d -> d.plusWeeks(1);
+            case MONTH -> d -> d.plusMonths(1);
+            case QUARTER -> d -> d.plusMonths(3);
+        };
+        LocalDate last = periodStart(endDate, granularity);
+        List<LocalDate> periods = new ArrayList<>();
+        for (LocalDate period = periodStart(startDate, granularity); !period.isAfter(last); period = next
+                .apply(period)) {
+            if (periods.size() == MAX_PERIODS) {
+                throw new AppException(ErrorCode.INVALID_REPORT_RANGE);
+            }
+            periods.add(period);
+        }
+        return periods;
+    }
+
+    private LocalDate periodStart(LocalDate date, ReportGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+        };
+    }
+
+    private LocalDateTime toStorage(ZonedDateTime dateTime) {
+        return dateTime.withZoneSameInstant(storageZone).toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private ZoneId resolveZone(String timeZone) {
+        if (timeZone == null || timeZone.isBlank()) {
+            return defaultZone;
+        }
+        try {
+            return ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            throw new AppException(ErrorCode.INVALID_TIME_ZONE);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.entity.InvalidatedToken;
+import com.vdt_project1.loan_management.repository.InvalidatedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the set of revoked JWT IDs in memory so that authenticating a request
+ * does not need a round trip to the invalidated_tokens table.
+ * <p>
+ * The table stays the source of truth: the set is warmed from it at startup and
+ * every revocation is written through. An entry is kept until the revoked token
+ * can no longer be used, i.e. until its refresh window has passed, and is then
+ * dropped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class TokenRevocationService {
+    InvalidatedTokenRepository invalidatedTokenRepository;
+
+    // jti -> epoch millis until which the entry has to be kept
+    Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    @NonFinal
+    @Value("${jwt.access-token-expiration}")
+    protected long ACCESS_TOKEN_EXPIRATION;
+
+    @NonFinal
+    @Value("${jwt.refresh-duration}")
+    protected long REFRESH_DURATION;
+
+    @PostConstruct
+    void loadRevokedTokens() {
+        Date cutoff = new Date(System.currentTimeMillis() - refreshGraceMillis());
+        List<InvalidatedToken> tokens = invalidatedTokenRepository.findByExpirationTimeAfter(cutoff);
+        tokens.forEach(token -> revokedTokens.put(token.getId(), retainUntil(token.getExpirationTime())));
+        log.info("Loaded {} revoked tokens into memory", revokedTokens.size());
+    }
+
+    public void revoke(String jti, Date expirationTime) {
+        invalidatedTokenRepository.save(InvalidatedToken.builder()
+                .id(jti)
+                .expirationTime(expirationTime)
+                .build());
+        revokedTokens.put(jti, retainUntil(expirationTime));
+    }
+
+    public boolean isRevoked(String jti) {
+        Long retainUntil = revokedTokens.get(jti);
+        if (retainUntil == null) {
+            return false;
+        }
+        if (retainUntil < System.currentTimeMillis()) {
+            // The token is past its refresh window and gets rejected on expiry anyway
+            revokedTokens.remove(jti, retainUntil);
+            return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation-sweep-interval:300000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        int before = revokedTokens.size();
+        revokedTokens.values().removeIf(retainUntil -> retainUntil < now);
+        int evicted = before - revokedTokens.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} expired entries from the revoked token set", evicted);
+        }
+    }
+
+    /**
+     * How long after its expiration time a token can still be exchanged through
+     * the refresh endpoint. Refresh validity is measured from the issue time, and
+     * the expiration time is the issue time plus the access token lifetime.
+     */
+    public long refreshGraceMillis() {
+        return Math.max(0, REFRESH_DURATION - ACCESS_TOKEN_EXPIRATION) * 1000;
+    }
+
+    private long retainUntil(Date expirationTime) {
+        return expirationTime.getTime() + refreshGraceMillis();
+    }
+}
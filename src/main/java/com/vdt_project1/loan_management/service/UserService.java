@@ -3,12 +3,14 @@ package com.vdt_project1.loan_management.service;
 import com.vdt_project1.loan_management.dto.request.UserCreationRequest;
 import com.vdt_project1.loan_management.dto.request.UserUpdateUserRequest;
 import com.vdt_project1.loan_management.dto.response.ApiResponse;
+import com.vdt_project1.loan_management.dto.response.CurrentUserDto;
 import com.vdt_project1.loan_management.dto.response.LoanProductResponse;
 import com.vdt_project1.loan_management.dto.response.UserResponse;
 import com.vdt_project1.loan_management.entity.LoanProduct;
 import com.vdt_project1.loan_management.entity.User;
 import com.vdt_project1.loan_management.enums.AccountStatus;
 import com.vdt_project1.loan_management.enums.LoanProductStatus;
+import com.vdt_project1.loan_management.event.UserChangedEvent;
 import com.vdt_project1.loan_management.exception.AppException;
 import com.vdt_project1.loan_management.exception.ErrorCode;
 import com.vdt_project1.loan_management.mapper.UserMapper;
@@ -17,17 +19,21 @@ import com.vdt_project1.loan_management.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -37,10 +43,15 @@ import java.util.List;
 @RequiredArgsConstructor
 @FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
 public class UserService {
+    private static final String CURRENT_USER_ATTRIBUTE = UserService.class.getName() + ".CURRENT_USER";
+
     UserRepository userRepository;
     UserMapper userMapper;
     RoleRepository roleRepository;
-    PasswordEncoder passwordEncoder;
+    PasswordHashingService passwordHashingService;
+    CurrentUserCache currentUserCache;
+    FullTextSearchService fullTextSearchService;
+    ApplicationEventPublisher eventPublisher;
 
     public UserResponse createUser(UserCreationRequest request) {
         boolean userExists = userRepository.existsByEmail(request.getEmail());
@@ -50,7 +61,7 @@ public class UserService {
         }
 
         User user = userMapper.toUser(request);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setAccountStatus(AccountStatus.INACTIVE);
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
@@ -73,11 +84,10 @@ public class UserService {
 
     public Page<UserResponse> getUsers(String name, String status, Pageable pageable) {
         Page<User> userPage;
-        if (name != null && status != null) {
-            userPage = userRepository.findByFullNameContainingIgnoreCaseAndAccountStatus(name,
-                    AccountStatus.valueOf(status.toUpperCase()), pageable);
-        } else if (name != null) {
-            userPage = userRepository.findByFullNameContainingIgnoreCase(name, pageable);
+        if (name != null && !name.isBlank()) {
+            // Matches name, email or phone, ignoring case and Vietnamese diacritics
+            userPage = fullTextSearchService.searchUsers(name,
+                    status != null ? AccountStatus.valueOf(status.toUpperCase()) : null, pageable);
         } else if (status != null) {
             userPage = userRepository.findByAccountStatus(AccountStatus.valueOf(status.toUpperCase()), pageable);
         } else {
@@ -96,6 +106,46 @@ public class UserService {
         return userMapper.toUserResponse(user);
     }
 
+    // Id of the authenticated user, read from the token's userId claim when present
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof Jwt jwt && jwt.getClaim("userId") instanceof Number userId) {
+            return userId.longValue();
+        }
+        return getCurrentUser().getId();
+    }
+
+    // Snapshot of the authenticated user, resolved at most once per request and shared for a short TTL
+    public CurrentUserDto getCurrentUser() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                        instanceof CurrentUserDto currentUser
+                && currentUser.getEmail().equals(email)) {
+            return currentUser;
+        }
+
+        CurrentUserDto currentUser = currentUserCache.get(email, this::loadCurrentUser);
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        }
+        return currentUser;
+    }
+
+    private CurrentUserDto loadCurrentUser(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXIST));
+
+        return CurrentUserDto.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .roleName(user.getRole() != null ? user.getRole().getName() : null)
+                .accountStatus(user.getAccountStatus())
+                .build();
+    }
+
     @Transactional
     public UserResponse updateMyProfile(UserUpdateUserRequest request) {
         User user = userRepository.findByEmail(SecurityContextHolder.getContext().getAuthentication().getName())
@@ -105,7 +155,7 @@ public class UserService {
         user.setUpdatedAt(LocalDateTime.now());
 
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
         }
 
         if (request.getRoleName() != null && !request.getRoleName().isEmpty()) {
@@ -113,7 +163,9 @@ public class UserService {
                     .orElseThrow(() -> new AppException(ErrorCode.ROLE_NOT_EXIST)));
         }
 
-        return userMapper.toUserResponse(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), savedUser.getEmail()));
+        return userMapper.toUserResponse(savedUser);
     }
 
     public void changeUserStatus(Long id, String status) {
@@ -123,6 +175,7 @@ public class UserService {
             user.setAccountStatus(AccountStatus.valueOf(status.toUpperCase()));
             user.setUpdatedAt(LocalDateTime.now());
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
         } catch (IllegalArgumentException e) {
             log.error("Invalid status value: {}", status);
             throw new AppException(ErrorCode.INVALID_STATUS);
@@ -145,7 +198,7 @@ public class UserService {
         // Handle password update
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
             // New password provided, encode and set it
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
         } else {
             // No new password provided, ensure original password hash is retained
             user.setPassword(originalPasswordHash);
@@ -157,10 +210,13 @@ public class UserService {
             user.setRole(roleRepository.findById(request.getRoleName())
                     .orElseThrow(() -> new AppException(ErrorCode.ROLE_NOT_EXIST)));
         }
-        return userMapper.toUserResponse(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), savedUser.getEmail()));
+        return userMapper.toUserResponse(savedUser);
     }
 
     public void deleteUserById(Long id) {
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id, null));
     }
 }
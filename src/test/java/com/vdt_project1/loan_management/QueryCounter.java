@@ -0,0 +1,28 @@
+package com.vdt_project1.loan_management;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the calling thread.
+ *
+ * Registered for the whole test context through
+ * hibernate.session_factory.statement_inspector. The count is per thread so
+ * scheduled jobs running in the background do not leak into an assertion.
+ */
+public class QueryCounter implements StatementInspector {
+    private static final ThreadLocal<Integer> COUNT = ThreadLocal.withInitial(() -> 0);
+
+    public static void reset() {
+        COUNT.set(0);
+    }
+
+    public static int count() {
+        return COUNT.get();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.set(COUNT.get() + 1);
+        return sql;
+    }
+}
@@ -0,0 +1,103 @@
+package com.vdt_project1.loan_management.configuration;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.vdt_project1.loan_management.service.AuthenticationService;
+import com.vdt_project1.loan_management.service.TokenRevocationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer token decoding: the original two-pass path (introspect, then a
+ * second parse and MAC check in NimbusJwtDecoder) against CustomJwtDecoder,
+ * with and without a verified-token cache hit.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CustomJwtDecoder
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomJwtDecoderBenchmark {
+    private static final String SIGNER_KEY = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private String token;
+    private AuthenticationService authenticationService;
+    private NimbusJwtDecoder nimbusJwtDecoder;
+    private CustomJwtDecoder uncachedDecoder;
+    private CustomJwtDecoder cachedDecoder;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        byte[] key = SIGNER_KEY.getBytes(StandardCharsets.UTF_8);
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("user@example.com")
+                .issuer("identity_service")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("userId", 1L)
+                .claim("scope", "ROLE_USER GET_LOAN_APPLICATIONS_BY_ID")
+                .build();
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+        signedJWT.sign(new MACSigner(key));
+        token = signedJWT.serialize();
+
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(null);
+        authenticationService = new AuthenticationService(null, tokenRevocationService, new VerifiedTokenCache(),
+                null, null, null, new MACVerifier(key), null, null);
+        nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(new SecretKeySpec(key, "HS256"))
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+
+        // A cache with no capacity never stores, every decode verifies the token
+        uncachedDecoder = decoder(tokenRevocationService, new VerifiedTokenCache());
+        VerifiedTokenCache cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 10);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 3600L);
+        cachedDecoder = decoder(tokenRevocationService, cache);
+        cachedDecoder.decode(token);
+    }
+
+    private CustomJwtDecoder decoder(TokenRevocationService tokenRevocationService, VerifiedTokenCache cache) {
+        CustomJwtDecoder decoder = new CustomJwtDecoder();
+        ReflectionTestUtils.setField(decoder, "authenticationService", authenticationService);
+        ReflectionTestUtils.setField(decoder, "tokenRevocationService", tokenRevocationService);
+        ReflectionTestUtils.setField(decoder, "verifiedTokenCache", cache);
+        return decoder;
+    }
+
+    @Benchmark
+    public Jwt twoPass() throws JOSEException, ParseException {
+        authenticationService.verifyToken(token, false);
+        return nimbusJwtDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt singlePass() {
+        return uncachedDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt cached() {
+        return cachedDecoder.decode(token);
+    }
+}
@@ -0,0 +1,79 @@
+package com.vdt_project1.loan_management.configuration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+    private VerifiedTokenCache cache;
+    private AtomicInteger conversions;
+    private Function<Jwt, Collection<GrantedAuthority>> converter;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 10);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        conversions = new AtomicInteger();
+        converter = jwt -> {
+            conversions.incrementAndGet();
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        };
+    }
+
+    @Test
+    void cachedTokenConvertsItsAuthoritiesOnce() {
+        Jwt jwt = jwt("token-1", Instant.now().plusSeconds(3600));
+        cache.put("token-1", jwt);
+
+        Jwt hit = cache.get("token-1");
+        assertThat(hit).isSameAs(jwt);
+        assertThat(cache.authorities(hit, converter)).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+        cache.authorities(cache.get("token-1"), converter);
+
+        assertThat(conversions).hasValue(1);
+    }
+
+    @Test
+    void uncachedJwtIsConvertedEveryTime() {
+        Jwt jwt = jwt("token-2", Instant.now().plusSeconds(3600));
+
+        cache.authorities(jwt, converter);
+        cache.authorities(jwt, converter);
+
+        assertThat(conversions).hasValue(2);
+    }
+
+    @Test
+    void evictedAndExpiredTokensAreMisses() {
+        cache.put("token-3", jwt("token-3", Instant.now().plusSeconds(3600)));
+        cache.put("token-4", jwt("token-4", Instant.now().minusSeconds(1)));
+
+        cache.evict("token-3");
+
+        assertThat(cache.get("token-3")).isNull();
+        assertThat(cache.get("token-4")).isNull();
+    }
+
+    private Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .subject("user@example.com")
+                .issuedAt(expiresAt.minusSeconds(3600))
+                .expiresAt(expiresAt)
+                .claim("scope", "ROLE_USER")
+                .build();
+    }
+}
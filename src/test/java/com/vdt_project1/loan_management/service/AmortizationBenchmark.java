@@ -0,0 +1,39 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.enums.AmortizationMethod;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One 30-year schedule (360 monthly periods) per method, the work a schedule
+ * request or one product of a quote does.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=Amortization
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AmortizationBenchmark {
+    private static final int TERM = 360;
+
+    @Param({ "ANNUITY", "EQUAL_PRINCIPAL", "INTEREST_ONLY" })
+    public AmortizationMethod method;
+
+    private long amount;
+    private AmortizationService.MonthlyRate rate;
+
+    @Setup
+    public void setUp() {
+        amount = 2_500_000_000L;
+        rate = AmortizationService.MonthlyRate.ofAnnualPercent(8.75);
+    }
+
+    @Benchmark
+    public AmortizationService.Schedule schedule() {
+        return AmortizationService.schedule(method, amount, rate, TERM);
+    }
+}
@@ -0,0 +1,87 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.enums.AmortizationMethod;
+import com.vdt_project1.loan_management.exception.AppException;
+import com.vdt_project1.loan_management.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AmortizationServiceTest {
+
+    @Test
+    void annuityMatchesTheHandCheckedPayment() {
+        // 100,000,000 VND at 12% a year over 12 months: 1e8 * 0.01 * 1.01^12 / (1.01^12 - 1)
+        AmortizationService.Schedule schedule = schedule(AmortizationMethod.ANNUITY, 100_000_000L, 12.0, 12);
+
+        assertThat(schedule.payment()[0]).isEqualTo(8_884_879L);
+        assertThat(schedule.interest()[0]).isEqualTo(1_000_000L);
+        assertThat(Arrays.copyOf(schedule.payment(), 11)).containsOnly(8_884_879L);
+        assertThat(schedule.balance()[11]).isZero();
+        assertThat(schedule.totalPayment()).isEqualTo(sum(schedule.payment()));
+        assertThat(schedule.totalInterest()).isEqualTo(schedule.totalPayment() - 100_000_000L);
+    }
+
+    @Test
+    void zeroRateSplitsTheAmountEvenly() {
+        AmortizationService.Schedule schedule = schedule(AmortizationMethod.ANNUITY, 12_000_000L, 0.0, 12);
+
+        assertThat(schedule.payment()).containsOnly(1_000_000L);
+        assertThat(schedule.interest()).containsOnly(0L);
+        assertThat(schedule.totalInterest()).isZero();
+    }
+
+    @Test
+    void principalsAddUpToTheAmount() {
+        for (AmortizationMethod method : AmortizationMethod.values()) {
+            for (int term : new int[] { 1, 7, 12, 360, 600 }) {
+                AmortizationService.Schedule schedule = schedule(method, 123_456_789L, 9.75, term);
+
+                assertThat(sum(schedule.principal())).as("%s over %d months", method, term)
+                        .isEqualTo(123_456_789L);
+                assertThat(schedule.balance()[term - 1]).isZero();
+            }
+        }
+    }
+
+    @Test
+    void equalPrincipalPutsTheRemainderInTheLastPeriod() {
+        AmortizationService.Schedule schedule = schedule(AmortizationMethod.EQUAL_PRINCIPAL, 100L, 0.0, 3);
+
+        assertThat(schedule.principal()).containsExactly(33L, 33L, 34L);
+    }
+
+    @Test
+    void outOfRangeInputIsRejected() {
+        assertInvalid(() -> schedule(AmortizationMethod.ANNUITY, 0L, 12.0, 12));
+        assertInvalid(() -> schedule(AmortizationMethod.ANNUITY, 1_000_000_000_000_001L, 12.0, 12));
+        assertInvalid(() -> schedule(AmortizationMethod.ANNUITY, 100_000_000L, 12.0, 601));
+        assertInvalid(() -> schedule(AmortizationMethod.ANNUITY, 100_000_000L, -1.0, 12));
+        assertInvalid(() -> schedule(AmortizationMethod.ANNUITY, 100_000_000L, Double.NaN, 12));
+    }
+
+    @Test
+    void overflowIsInvalidInput() {
+        assertInvalid(() -> schedule(AmortizationMethod.INTEREST_ONLY, 1_000_000_000_000_000L, 1e12, 600));
+        assertInvalid(() -> schedule(AmortizationMethod.ANNUITY, 1_000_000_000_000_000L, 1e30, 12));
+    }
+
+    private AmortizationService.Schedule schedule(AmortizationMethod method, long amount, double annualRate,
+            int term) {
+        return AmortizationService.schedule(method, amount,
+                AmortizationService.MonthlyRate.ofAnnualPercent(annualRate), term);
+    }
+
+    private void assertInvalid(Runnable call) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(AppException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.INVALID_AMORTIZATION_INPUT));
+    }
+
+    private long sum(long[] values) {
+        return Arrays.stream(values).sum();
+    }
+}
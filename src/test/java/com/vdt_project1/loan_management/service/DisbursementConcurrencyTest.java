@@ -0,0 +1,198 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.request.DisbursementRequest;
+import com.vdt_project1.loan_management.dto.response.DisbursementResponse;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.entity.LoanProduct;
+import com.vdt_project1.loan_management.entity.User;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.exception.AppException;
+import com.vdt_project1.loan_management.exception.ErrorCode;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.LoanProductRepository;
+import com.vdt_project1.loan_management.repository.UserRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads disbursing against one application at the same time: a shared
+ * idempotency key must produce exactly one ledger entry, and distinct keys
+ * must never disburse more than the requested amount.
+ */
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class DisbursementConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final long REQUESTED_AMOUNT = 10_000_000L;
+    private static final long TRANCHE = 1_000_000L;
+
+    @Autowired
+    DisbursementTransactionService disbursementTransactionService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    LoanProductRepository loanProductRepository;
+    @Autowired
+    LoanApplicationRepository loanApplicationRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sameKeyDisbursesOnce() throws Exception {
+        LoanApplication application = approvedApplication();
+        String key = "same-key-" + application.getId();
+
+        List<Outcome> outcomes = race(thread -> () -> disbursementTransactionService.createDisbursement(
+                request(application), key));
+
+        assertThat(outcomes).allSatisfy(outcome -> assertThat(outcome.error()).isNull());
+        assertThat(outcomes).extracting(outcome -> outcome.response().getTransactionId()).containsOnly(
+                outcomes.get(0).response().getTransactionId());
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM disbursement_transactions WHERE idempotency_key = ?", Long.class, key))
+                .isEqualTo(1L);
+        assertLedger(application, 1, TRANCHE);
+    }
+
+    @Test
+    void distinctKeysNeverOverDisburse() throws Exception {
+        LoanApplication application = approvedApplication();
+
+        List<Outcome> outcomes = race(thread -> () -> disbursementTransactionService.createDisbursement(
+                request(application), "key-" + application.getId() + "-" + thread));
+
+        long succeeded = outcomes.stream().filter(outcome -> outcome.error() == null).count();
+        int tranches = (int) (REQUESTED_AMOUNT / TRANCHE);
+        assertThat(succeeded).isEqualTo(tranches);
+        assertThat(outcomes).filteredOn(outcome -> outcome.error() != null)
+                .extracting(outcome -> outcome.error().getErrorCode())
+                .isSubsetOf(ErrorCode.DISBURSEMENT_AMOUNT_EXCEEDS_APPROVED,
+                        ErrorCode.LOAN_APPLICATION_NOT_APPROVED);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT idempotency_key) FROM "
+                + "disbursement_transactions WHERE application_id = ?", Long.class, application.getId()))
+                .isEqualTo((long) tranches);
+        assertLedger(application, tranches, REQUESTED_AMOUNT);
+        assertThat(loanApplicationRepository.findById(application.getId()).orElseThrow().getStatus())
+                .isEqualTo(LoanApplicationStatus.FULLY_DISBURSED);
+    }
+
+    @Test
+    void blankKeyIsNoKey() throws Exception {
+        LoanApplication application = approvedApplication();
+
+        List<Outcome> outcomes = race(thread -> () -> disbursementTransactionService.createDisbursement(
+                request(application), thread % 2 == 0 ? "" : "   "));
+
+        int tranches = (int) (REQUESTED_AMOUNT / TRANCHE);
+        assertThat(outcomes).filteredOn(outcome -> outcome.error() == null).hasSize(tranches);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM disbursement_transactions "
+                + "WHERE application_id = ? AND idempotency_key IS NULL", Long.class, application.getId()))
+                .isEqualTo((long) tranches);
+        assertLedger(application, tranches, REQUESTED_AMOUNT);
+    }
+
+    private record Outcome(DisbursementResponse response, AppException error) {
+    }
+
+    // Starts every call at once, each on its own thread authenticated as the admin
+    private List<Outcome> race(IntFunction<Callable<DisbursementResponse>> calls) throws Exception {
+        User admin = userRepository.findByEmail("admin@gmail.com").orElseThrow();
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject(admin.getEmail())
+                .claim("userId", admin.getId())
+                .build();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<DisbursementResponse>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<DisbursementResponse> call = calls.apply(t);
+                futures.add(executor.submit(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+                    try {
+                        start.await();
+                        return call.call();
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                }));
+            }
+            start.countDown();
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<DisbursementResponse> future : futures) {
+                try {
+                    outcomes.add(new Outcome(future.get(), null));
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof AppException error)) {
+                        throw e;
+                    }
+                    outcomes.add(new Outcome(null, error));
+                }
+            }
+            return outcomes;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void assertLedger(LoanApplication application, long entries, long total) {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM disbursement_transactions WHERE application_id = ?", Long.class,
+                application.getId())).isEqualTo(entries);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(amount) FROM disbursement_transactions WHERE application_id = ?", Long.class,
+                application.getId())).isEqualTo(total);
+        LoanApplication stored = loanApplicationRepository.findById(application.getId()).orElseThrow();
+        assertThat(stored.getDisbursedTotal()).isEqualTo(total);
+        assertThat(stored.getDisbursementCount()).isEqualTo(entries);
+    }
+
+    private DisbursementRequest request(LoanApplication application) {
+        return DisbursementRequest.builder()
+                .applicationId(application.getId())
+                .amount(TRANCHE)
+                .build();
+    }
+
+    private LoanApplication approvedApplication() {
+        User admin = userRepository.findByEmail("admin@gmail.com").orElseThrow();
+        LoanProduct product = loanProductRepository.save(LoanProduct.builder()
+                .name("Concurrency product")
+                .interestRate(12.0)
+                .minAmount(1L)
+                .maxAmount(1_000_000_000L)
+                .minTerm(1)
+                .maxTerm(60)
+                .requiredDocuments("[]")
+                .build());
+        return loanApplicationRepository.save(LoanApplication.builder()
+                .user(admin)
+                .loanProduct(product)
+                .requestedAmount(REQUESTED_AMOUNT)
+                .requestedTerm(12)
+                .personalInfo("{}")
+                .status(LoanApplicationStatus.APPROVED)
+                .disbursedTotal(0L)
+                .disbursementCount(0L)
+                .build());
+    }
+}
@@ -0,0 +1,187 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.response.DisbursementImportResponse;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.entity.LoanProduct;
+import com.vdt_project1.loan_management.entity.User;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.LoanProductRepository;
+import com.vdt_project1.loan_management.repository.ReportApplicationFactRepository;
+import com.vdt_project1.loan_management.repository.ReportDisbursementFactRepository;
+import com.vdt_project1.loan_management.repository.UserRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imported rows are written with JDBC batches rather than through the
+ * entities, so the import must keep the application totals, the ledger and
+ * every reporting rollup in step with the single disbursement path.
+ */
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class DisbursementImportServiceTest {
+    private static final long REQUESTED_AMOUNT = 10_000_000L;
+
+    @Autowired
+    DisbursementImportService disbursementImportService;
+    @Autowired
+    DisbursementLedgerService disbursementLedgerService;
+    @Autowired
+    ReportRollupService reportRollupService;
+    @Autowired
+    ReportApplicationFactRepository applicationFactRepository;
+    @Autowired
+    ReportDisbursementFactRepository disbursementFactRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    LoanProductRepository loanProductRepository;
+    @Autowired
+    LoanApplicationRepository loanApplicationRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void authenticate() {
+        User admin = userRepository.findByEmail("admin@gmail.com").orElseThrow();
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject(admin.getEmail())
+                .claim("userId", admin.getId())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void importedRowsUpdateTotalsLedgerAndRollups() {
+        LocalDateTime created = LocalDateTime.of(2002, 3, 4, 9, 15);
+        LocalDateTime disbursedHour = LocalDateTime.of(2002, 3, 5, 14, 0);
+        LoanApplication application = approvedApplication(created);
+        Long id = application.getId();
+        Long productId = application.getLoanProduct().getId();
+        Map<LoanApplicationStatus, Long> countsBefore = reportRollupService.getStatusCounts();
+
+        DisbursementImportResponse response = importCsv("""
+                applicationId,amount,transactionDate,idempotencyKey
+                %d,2000000,2002-03-05T14:10:00,import-%d-1
+                %d,3000000,2002-03-05T14:40:00,import-%d-2
+                """.formatted(id, id, id, id));
+
+        assertThat(response.getImportedRows()).isEqualTo(2);
+        assertThat(response.getRejectedRows()).isZero();
+
+        LoanApplication stored = loanApplicationRepository.findById(id).orElseThrow();
+        assertThat(stored.getDisbursedTotal()).isEqualTo(5_000_000L);
+        assertThat(stored.getDisbursementCount()).isEqualTo(2L);
+        assertThat(stored.getStatus()).isEqualTo(LoanApplicationStatus.PARTIALLY_DISBURSED);
+        assertThat(disbursementLedgerService.getBalanceAt(id, null).getBalance()).isEqualTo(5_000_000L);
+        // The snapshot job finds the imported entries by their write time
+        disbursementLedgerService.takeSnapshots();
+        assertThat(disbursementLedgerService.getBalanceAt(id, null)).satisfies(balance -> {
+            assertThat(balance.getSnapshotAsOf()).isNotNull();
+            assertThat(balance.getBalance()).isEqualTo(5_000_000L);
+        });
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM disbursement_transactions "
+                + "WHERE application_id = ? AND created_at IS NOT NULL", Long.class, id)).isEqualTo(2L);
+
+        assertThat(disbursementFactRepository.findInRangeForProducts(disbursedHour, disbursedHour.plusHours(1),
+                List.of(productId))).singleElement().satisfies(fact -> {
+                    assertThat(fact.getDisbursedCount()).isEqualTo(2L);
+                    assertThat(fact.getDisbursedAmount()).isEqualTo(5_000_000L);
+                });
+
+        LocalDateTime createdHour = created.withMinute(0);
+        assertThat(applicationFactRepository.findInRangeForProducts(createdHour, createdHour.plusHours(1),
+                EnumSet.of(LoanApplicationStatus.APPROVED, LoanApplicationStatus.PARTIALLY_DISBURSED),
+                List.of(productId)))
+                .filteredOn(fact -> fact.getApplicationCount() != 0)
+                .singleElement()
+                .satisfies(fact -> assertThat(fact.getStatus()).isEqualTo(LoanApplicationStatus.PARTIALLY_DISBURSED));
+
+        Map<LoanApplicationStatus, Long> countsAfter = reportRollupService.getStatusCounts();
+        assertThat(countsAfter.getOrDefault(LoanApplicationStatus.APPROVED, 0L))
+                .isEqualTo(countsBefore.getOrDefault(LoanApplicationStatus.APPROVED, 0L) - 1);
+        assertThat(countsAfter.getOrDefault(LoanApplicationStatus.PARTIALLY_DISBURSED, 0L))
+                .isEqualTo(countsBefore.getOrDefault(LoanApplicationStatus.PARTIALLY_DISBURSED, 0L) + 1);
+    }
+
+    @Test
+    void dryRunWritesNothing() {
+        LoanApplication application = approvedApplication(LocalDateTime.of(2002, 3, 6, 9, 0));
+        Long id = application.getId();
+        Map<LoanApplicationStatus, Long> countsBefore = reportRollupService.getStatusCounts();
+
+        DisbursementImportResponse response = disbursementImportService.importDisbursements(
+                csv("applicationId,amount\n%d,%d\n".formatted(id, REQUESTED_AMOUNT)), false, true);
+
+        assertThat(response.getRejectedRows()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM disbursement_transactions "
+                + "WHERE application_id = ?", Long.class, id)).isZero();
+        assertThat(loanApplicationRepository.findById(id).orElseThrow().getStatus())
+                .isEqualTo(LoanApplicationStatus.APPROVED);
+        assertThat(reportRollupService.getStatusCounts()).isEqualTo(countsBefore);
+    }
+
+    private DisbursementImportResponse importCsv(String content) {
+        return disbursementImportService.importDisbursements(csv(content), false, false);
+    }
+
+    private ByteArrayInputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Saved and counted the way LoanApplicationService approves one, so the rollups start consistent
+    private LoanApplication approvedApplication(LocalDateTime createdAt) {
+        return transactionTemplate.execute(status -> {
+            User admin = userRepository.findByEmail("admin@gmail.com").orElseThrow();
+            LoanProduct product = loanProductRepository.save(LoanProduct.builder()
+                    .name("Import product")
+                    .interestRate(12.0)
+                    .minAmount(1L)
+                    .maxAmount(1_000_000_000L)
+                    .minTerm(1)
+                    .maxTerm(60)
+                    .requiredDocuments("[]")
+                    .build());
+            LoanApplication application = loanApplicationRepository.save(LoanApplication.builder()
+                    .user(admin)
+                    .loanProduct(product)
+                    .requestedAmount(REQUESTED_AMOUNT)
+                    .requestedTerm(12)
+                    .personalInfo("{}")
+                    .status(LoanApplicationStatus.APPROVED)
+                    .createdAt(createdAt)
+                    .disbursedTotal(0L)
+                    .disbursementCount(0L)
+                    .build());
+            reportRollupService.applicationCreated(application);
+            return application;
+        });
+    }
+}
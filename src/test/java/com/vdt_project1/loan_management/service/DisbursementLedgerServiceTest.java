@@ -0,0 +1,152 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.response.DisbursementBalanceResponse;
+import com.vdt_project1.loan_management.entity.DisbursementTransaction;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.entity.LoanProduct;
+import com.vdt_project1.loan_management.entity.User;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.repository.DisbursementBalanceSnapshotRepository;
+import com.vdt_project1.loan_management.repository.DisbursementTransactionRepository;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.LoanProductRepository;
+import com.vdt_project1.loan_management.repository.UserRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A balance read from a snapshot plus the ledger tail must always equal the
+ * plain sum over every entry dated up to that time, whatever was written
+ * before or after the snapshot and whatever date it carries.
+ */
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class DisbursementLedgerServiceTest {
+
+    @Autowired
+    DisbursementLedgerService disbursementLedgerService;
+    @Autowired
+    DisbursementTransactionRepository disbursementTransactionRepository;
+    @Autowired
+    DisbursementBalanceSnapshotRepository snapshotRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    LoanProductRepository loanProductRepository;
+    @Autowired
+    LoanApplicationRepository loanApplicationRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void snapshotPlusTailMatchesAFullSum() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Long id = application().getId();
+
+        entry(id, 1_000L, now.minusDays(10), null);
+        DisbursementTransaction reversed = entry(id, 2_000L, now.minusDays(5), null);
+        // Future-dated when the snapshot is taken: written before it, but not part of its balance
+        entry(id, 4_000L, now.plusDays(5), null);
+        assertBalancesMatchLedger(id, now);
+
+        disbursementLedgerService.takeSnapshots();
+        LocalDateTime firstSnapshot = latestSnapshot(id);
+        assertThat(firstSnapshot).isNotNull();
+        assertBalancesMatchLedger(id, now);
+
+        // Back-dated behind the snapshot, a reversal counted as -1, and another future-dated entry
+        entry(id, 8_000L, now.minusDays(7), null);
+        entry(id, -2_000L, now.minusHours(1), reversed.getTransactionId());
+        entry(id, 16_000L, now.plusDays(10), null);
+        assertBalancesMatchLedger(id, now);
+
+        disbursementLedgerService.takeSnapshots();
+        assertThat(latestSnapshot(id)).isAfter(firstSnapshot);
+        entry(id, 32_000L, now.minusDays(20), null);
+        assertBalancesMatchLedger(id, now);
+
+        DisbursementBalanceResponse today = disbursementLedgerService.getBalanceAt(id, now.plusDays(1));
+        assertThat(today.getSnapshotAsOf()).isNotNull();
+        assertThat(today.getBalance()).isEqualTo(1_000L + 8_000L + 32_000L);
+        assertThat(today.getDisbursementCount()).isEqualTo(3L);
+    }
+
+    @Test
+    void snapshotRunPicksUpEntriesCommittedJustBeforeThePreviousRun() {
+        disbursementLedgerService.takeSnapshots();
+        LocalDateTime lastRun = snapshotRepository.findLastSnapshotTime().orElseGet(LocalDateTime::now);
+        Long id = application().getId();
+
+        // Stamped before the previous run, committed after it: only the lookback window finds it
+        jdbcTemplate.update("INSERT INTO disbursement_transactions (application_id, amount, transaction_date, "
+                + "created_at) VALUES (?, ?, ?, ?)", id, 5_000L, Timestamp.valueOf(lastRun.minusMinutes(5)),
+                Timestamp.valueOf(lastRun.minusMinutes(1)));
+        disbursementLedgerService.takeSnapshots();
+
+        assertThat(latestSnapshot(id)).isNotNull();
+        assertThat(disbursementLedgerService.getBalanceAt(id, null).getBalance()).isEqualTo(5_000L);
+    }
+
+    private void assertBalancesMatchLedger(Long id, LocalDateTime now) {
+        for (LocalDateTime at : new LocalDateTime[] { now.minusDays(30), now.minusDays(8), now.minusDays(6),
+                now.minusHours(2), now, now.plusDays(1), now.plusDays(6), now.plusDays(11) }) {
+            Map<String, Object> expected = jdbcTemplate.queryForMap("SELECT COALESCE(SUM(amount), 0) AS balance, "
+                    + "COALESCE(SUM(CASE WHEN reversal_of IS NULL THEN 1 ELSE -1 END), 0) AS count "
+                    + "FROM disbursement_transactions WHERE application_id = ? AND transaction_date <= ?", id,
+                    Timestamp.valueOf(at));
+            DisbursementBalanceResponse balance = disbursementLedgerService.getBalanceAt(id, at);
+            assertThat(balance.getBalance()).as("balance at %s", at)
+                    .isEqualTo(((Number) expected.get("balance")).longValue());
+            assertThat(balance.getDisbursementCount()).as("count at %s", at)
+                    .isEqualTo(((Number) expected.get("count")).longValue());
+        }
+    }
+
+    private LocalDateTime latestSnapshot(Long id) {
+        return snapshotRepository.findFirstByApplicationIdAndAsOfLessThanEqualOrderByAsOfDescIdDesc(id,
+                LocalDateTime.now()).map(snapshot -> snapshot.getAsOf()).orElse(null);
+    }
+
+    private DisbursementTransaction entry(Long applicationId, long amount, LocalDateTime transactionDate,
+            Long reversalOf) {
+        return disbursementTransactionRepository.save(DisbursementTransaction.builder()
+                .applicationId(applicationId)
+                .amount(amount)
+                .transactionDate(transactionDate)
+                .reversalOf(reversalOf)
+                .build());
+    }
+
+    private LoanApplication application() {
+        User admin = userRepository.findByEmail("admin@gmail.com").orElseThrow();
+        LoanProduct product = loanProductRepository.save(LoanProduct.builder()
+                .name("Ledger product")
+                .interestRate(12.0)
+                .minAmount(1L)
+                .maxAmount(1_000_000_000L)
+                .minTerm(1)
+                .maxTerm(60)
+                .requiredDocuments("[]")
+                .build());
+        return loanApplicationRepository.save(LoanApplication.builder()
+                .user(admin)
+                .loanProduct(product)
+                .requestedAmount(100_000_000L)
+                .requestedTerm(12)
+                .personalInfo("{}")
+                .status(LoanApplicationStatus.PARTIALLY_DISBURSED)
+                .disbursedTotal(0L)
+                .disbursementCount(0L)
+                .build());
+    }
+}
@@ -0,0 +1,146 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.configuration.EmailCampaignProperties;
+import com.vdt_project1.loan_management.dto.request.EmailCampaignRequest;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.entity.LoanProduct;
+import com.vdt_project1.loan_management.entity.User;
+import com.vdt_project1.loan_management.enums.EmailCampaignStatus;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.LoanProductRepository;
+import com.vdt_project1.loan_management.repository.UserRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Campaigns wait in the coordinator's queue behind the one that is running.
+ * Waiting must not look abandoned to the stale check, and a campaign that was
+ * failed while it waited must stay FAILED instead of running anyway.
+ */
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class EmailCampaignServiceTest {
+    private static final String TEMPLATE = "application-result-template";
+
+    @Autowired
+    EmailCampaignService emailCampaignService;
+    @Autowired
+    EmailCampaignProperties properties;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    LoanProductRepository loanProductRepository;
+    @Autowired
+    LoanApplicationRepository loanApplicationRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @MockitoSpyBean
+    EmailTemplateRenderer emailTemplateRenderer;
+
+    @Test
+    void campaignsWaitingBehindASlowOneAreNotFailedOrResurrected() throws Exception {
+        LoanApplication slow = application();
+        LoanApplication failedWhileQueued = application();
+        LoanApplication waiting = application();
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (slow.getId().equals(invocation.<Map<String, Object>>getArgument(1).get("applicationId"))) {
+                rendering.countDown();
+                assertThat(release.await(30, TimeUnit.SECONDS)).isTrue();
+            }
+            return invocation.callRealMethod();
+        }).when(emailTemplateRenderer).render(anyString(), anyMap());
+
+        Long first = start(slow);
+        assertThat(rendering.await(30, TimeUnit.SECONDS)).isTrue();
+        Long second = start(failedWhileQueued);
+        Long third = start(waiting);
+        assertThat(status(first)).isEqualTo(EmailCampaignStatus.RUNNING);
+        assertThat(status(second)).isEqualTo(EmailCampaignStatus.QUEUED);
+
+        // Every campaign is older than stale-after, but this instance still holds them
+        long staleAfter = properties.getStaleAfter();
+        properties.setStaleAfter(0);
+        try {
+            emailCampaignService.failAbandonedCampaigns();
+        } finally {
+            properties.setStaleAfter(staleAfter);
+        }
+        assertThat(status(first)).isEqualTo(EmailCampaignStatus.RUNNING);
+        assertThat(status(third)).isEqualTo(EmailCampaignStatus.QUEUED);
+
+        // Failed while queued, the way the stale check of a restarted instance would
+        jdbcTemplate.update("UPDATE email_campaigns SET status = 'FAILED' WHERE campaign_id = ?", second);
+        release.countDown();
+
+        awaitStatus(third, EmailCampaignStatus.COMPLETED);
+        assertThat(status(first)).isEqualTo(EmailCampaignStatus.COMPLETED);
+        assertThat(status(second)).isEqualTo(EmailCampaignStatus.FAILED);
+        assertThat(outboxRows(first)).isEqualTo(1L);
+        assertThat(outboxRows(second)).isZero();
+        assertThat(outboxRows(third)).isEqualTo(1L);
+    }
+
+    private Long start(LoanApplication application) {
+        return emailCampaignService.startCampaign(EmailCampaignRequest.builder()
+                .templateName(TEMPLATE)
+                .applicationIds(List.of(application.getId()))
+                .build()).getId();
+    }
+
+    private EmailCampaignStatus status(Long campaignId) {
+        return EmailCampaignStatus.valueOf(emailCampaignService.getCampaign(campaignId).getStatus());
+    }
+
+    private void awaitStatus(Long campaignId, EmailCampaignStatus expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (status(campaignId) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(status(campaignId)).isEqualTo(expected);
+    }
+
+    private long outboxRows(Long campaignId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox WHERE campaign_id = ?", Long.class,
+                campaignId);
+    }
+
+    private LoanApplication application() {
+        User admin = userRepository.findByEmail("admin@gmail.com").orElseThrow();
+        LoanProduct product = loanProductRepository.save(LoanProduct.builder()
+                .name("Campaign product")
+                .interestRate(12.0)
+                .minAmount(1L)
+                .maxAmount(1_000_000_000L)
+                .minTerm(1)
+                .maxTerm(60)
+                .requiredDocuments("[]")
+                .build());
+        return loanApplicationRepository.save(LoanApplication.builder()
+                .user(admin)
+                .loanProduct(product)
+                .requestedAmount(10_000_000L)
+                .requestedTerm(12)
+                .personalInfo("{}")
+                .status(LoanApplicationStatus.APPROVED)
+                .disbursedTotal(0L)
+                .disbursementCount(0L)
+                .build());
+    }
+}
@@ -0,0 +1,84 @@
+package com.vdt_project1.loan_management.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One email body of a notification wave: EmailTemplateRenderer with the
+ * pre-rendered header and footer against the templates as they were before,
+ * with the layout markup inline (kept under benchmark/legacy-templates). Both
+ * engines cache parsed templates, as spring.thymeleaf.cache does.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=EmailTemplateRenderer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailTemplateRendererBenchmark {
+
+    @Param({ "disburse-template", "application-result-template" })
+    public String template;
+
+    private EmailTemplateRenderer renderer;
+    private SpringTemplateEngine legacyEngine;
+    private Map<String, Object> variables;
+
+    @Setup
+    public void setUp() {
+        renderer = new EmailTemplateRenderer(engine("templates/"), new SimpleMeterRegistry());
+        renderer.precompile();
+        legacyEngine = engine("benchmark/legacy-templates/");
+
+        variables = new HashMap<>();
+        variables.put("name", "Nguyễn Văn A");
+        variables.put("amount", 20_000_000.0);
+        variables.put("totalDisbursed", 60_000_000.0);
+        variables.put("totalAmount", 100_000_000.0);
+        variables.put("remainingAmount", 40_000_000.0);
+        variables.put("progressPercentage", 60L);
+        variables.put("isFullyDisbursed", false);
+        variables.put("transactionDate", "17/10/2026 09:30");
+        variables.put("applicationId", 12345L);
+        variables.put("notes", "Giải ngân đợt 3");
+        variables.put("status", "APPROVED");
+        variables.put("statusText", "Đã phê duyệt");
+        variables.put("productName", "Vay tiêu dùng");
+        variables.put("internalNotes", null);
+        legacyFullRender();
+    }
+
+    private SpringTemplateEngine engine(String prefix) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix(prefix);
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    @Benchmark
+    public String cachedLayout() {
+        return renderer.render(template, variables);
+    }
+
+    @Benchmark
+    public String legacyFullRender() {
+        Context context = new Context();
+        context.setVariables(variables);
+        return legacyEngine.process(template, context);
+    }
+}
@@ -0,0 +1,31 @@
+package com.vdt_project1.loan_management.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportServiceTest {
+
+    @Test
+    void formulaPrefixesAreNeutralized() {
+        assertThat(ExportService.escape("=SUM(A1:A9)")).isEqualTo("'=SUM(A1:A9)");
+        assertThat(ExportService.escape("+84 912 345 678")).isEqualTo("'+84 912 345 678");
+        assertThat(ExportService.escape("-1")).isEqualTo("'-1");
+        assertThat(ExportService.escape("@cmd")).isEqualTo("'@cmd");
+        assertThat(ExportService.escape("\t=1+1")).isEqualTo("'\t=1+1");
+        assertThat(ExportService.escape("\r=1+1")).isEqualTo("\"'\r=1+1\"");
+    }
+
+    @Test
+    void quotesOnlyWhenNeeded() {
+        assertThat(ExportService.escape("Nguyễn Văn A")).isEqualTo("Nguyễn Văn A");
+        assertThat(ExportService.escape("a,b")).isEqualTo("\"a,b\"");
+        assertThat(ExportService.escape("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(ExportService.escape(null)).isEmpty();
+    }
+
+    @Test
+    void numbersAreWrittenAsIs() {
+        assertThat(ExportService.escape(-1500L)).isEqualTo("-1500");
+    }
+}
@@ -0,0 +1,135 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.response.LoanApplicationResponse;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.entity.LoanProduct;
+import com.vdt_project1.loan_management.entity.User;
+import com.vdt_project1.loan_management.enums.AccountStatus;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.LoanProductRepository;
+import com.vdt_project1.loan_management.repository.UserRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Trigram search on PostgreSQL: the startup setup installs pg_trgm, unaccent
+ * and the GIN indexes, and queries match without diacritics, in any case,
+ * in any token order and with a typo.
+ */
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FullTextSearchServiceTest {
+    private static final Pageable PAGE = PageRequest.of(0, 50);
+
+    @Autowired
+    FullTextSearchService fullTextSearchService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    LoanProductRepository loanProductRepository;
+    @Autowired
+    LoanApplicationRepository loanApplicationRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    User applicant;
+    User other;
+    LoanApplication application;
+
+    @BeforeAll
+    void seed() {
+        User admin = userRepository.findByEmail("admin@gmail.com").orElseThrow();
+        applicant = userRepository.save(User.builder()
+                .email("khoa.nguyen@search.test")
+                .password("x")
+                .fullName("Nguyễn Đức Khoa")
+                .phoneNumber("0912345678")
+                .role(admin.getRole())
+                .accountStatus(AccountStatus.ACTIVE)
+                .build());
+        other = userRepository.save(User.builder()
+                .email("bich.tran@search.test")
+                .password("x")
+                .fullName("Trần Thị Bích")
+                .phoneNumber("0987654321")
+                .role(admin.getRole())
+                .accountStatus(AccountStatus.ACTIVE)
+                .build());
+        LoanProduct product = loanProductRepository.save(LoanProduct.builder()
+                .name("Search product")
+                .interestRate(12.0)
+                .minAmount(1L)
+                .maxAmount(1_000_000_000L)
+                .minTerm(1)
+                .maxTerm(60)
+                .requiredDocuments("[]")
+                .build());
+        application = loanApplicationRepository.save(LoanApplication.builder()
+                .user(other)
+                .loanProduct(product)
+                .requestedAmount(10_000_000L)
+                .requestedTerm(12)
+                .personalInfo("{\"address\": \"Phường Hải Châu, Đà Nẵng\", \"employer\": \"Công ty Sông Hàn\"}")
+                .status(LoanApplicationStatus.NEW)
+                .build());
+    }
+
+    @Test
+    void extensionsAndIndexesAreCreated() {
+        assertThat(jdbcTemplate.queryForList("SELECT extname FROM pg_extension", String.class))
+                .contains("pg_trgm", "unaccent");
+        assertThat(jdbcTemplate.queryForList("SELECT i.relname FROM pg_index x JOIN pg_class i "
+                + "ON i.oid = x.indexrelid WHERE x.indisvalid", String.class))
+                .contains("idx_users_search_trgm", "idx_loan_applications_personal_info_trgm");
+    }
+
+    @Test
+    void usersMatchWithoutDiacriticsInAnyCaseAndOrder() {
+        assertThat(userIds("nguyen")).contains(applicant.getId()).doesNotContain(other.getId());
+        assertThat(userIds("KHOA duc")).contains(applicant.getId());
+        assertThat(userIds("Nguyễn Đức")).contains(applicant.getId());
+        assertThat(userIds("tran thi bich")).contains(other.getId()).doesNotContain(applicant.getId());
+        assertThat(userIds("search.test 0912")).containsExactly(applicant.getId());
+    }
+
+    @Test
+    void usersMatchWithATypo() {
+        assertThat(userIds("nguyn khoa")).contains(applicant.getId());
+        assertThat(userIds("bicch")).contains(other.getId());
+    }
+
+    @Test
+    void unrelatedQueriesMatchNothing() {
+        assertThat(userIds("zyxwvut")).isEmpty();
+        assertThat(applicationIds("zyxwvut")).isEmpty();
+    }
+
+    @Test
+    void applicationsMatchPersonalInfoAndApplicant() {
+        assertThat(applicationIds("da nang")).contains(application.getId());
+        assertThat(applicationIds("Sông Hàn")).contains(application.getId());
+        assertThat(applicationIds("tran bich")).contains(application.getId());
+    }
+
+    private List<Long> userIds(String query) {
+        return fullTextSearchService.searchUsers(query, null, PAGE).map(User::getId).getContent();
+    }
+
+    private List<Long> applicationIds(String query) {
+        return fullTextSearchService.searchLoanApplications(query, PAGE).map(LoanApplicationResponse::getId)
+                .getContent();
+    }
+}
@@ -0,0 +1,208 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.QueryCounter;
+import com.vdt_project1.loan_management.dto.response.CursorPageResponse;
+import com.vdt_project1.loan_management.dto.response.LoanApplicationResponse;
+import com.vdt_project1.loan_management.entity.DisbursementTransaction;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.entity.LoanProduct;
+import com.vdt_project1.loan_management.entity.Notification;
+import com.vdt_project1.loan_management.entity.Role;
+import com.vdt_project1.loan_management.entity.User;
+import com.vdt_project1.loan_management.enums.AccountStatus;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.enums.NotificationType;
+import com.vdt_project1.loan_management.repository.DisbursementTransactionRepository;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.LoanProductRepository;
+import com.vdt_project1.loan_management.repository.NotificationRepository;
+import com.vdt_project1.loan_management.repository.RoleRepository;
+import com.vdt_project1.loan_management.repository.UserRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listing pages must load their rows with the users, roles and products the
+ * mappers read in one statement, however many distinct users and products the
+ * page holds. Offset pages may add the COUNT, Spring Data skips it when the
+ * first page is not full.
+ */
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingQueryCountTest {
+    private static final int ROLES = 3;
+    private static final int USERS = 10;
+    private static final int PRODUCTS = 4;
+    private static final int APPLICATIONS_PER_USER = 4;
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Autowired
+    LoanApplicationService loanApplicationService;
+    @Autowired
+    DisbursementTransactionService disbursementTransactionService;
+    @Autowired
+    NotificationService notificationService;
+    @Autowired
+    RoleRepository roleRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    LoanProductRepository loanProductRepository;
+    @Autowired
+    LoanApplicationRepository loanApplicationRepository;
+    @Autowired
+    DisbursementTransactionRepository disbursementTransactionRepository;
+    @Autowired
+    NotificationRepository notificationRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    User currentUser;
+    LoanApplication currentUserApplication;
+
+    @BeforeAll
+    void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Role> roles = new ArrayList<>();
+            for (int i = 0; i < ROLES; i++) {
+                roles.add(roleRepository.save(Role.builder().name("QUERY_COUNT_" + i).build()));
+            }
+            List<LoanProduct> products = new ArrayList<>();
+            for (int i = 0; i < PRODUCTS; i++) {
+                products.add(loanProductRepository.save(LoanProduct.builder()
+                        .name("Query count product " + i)
+                        .interestRate(10.0 + i)
+                        .minAmount(1_000_000L)
+                        .maxAmount(1_000_000_000L)
+                        .minTerm(1)
+                        .maxTerm(60)
+                        .requiredDocuments("[]")
+                        .createdAt(now)
+                        .build()));
+            }
+            List<LoanApplication> applications = new ArrayList<>();
+            for (int u = 0; u < USERS; u++) {
+                User user = userRepository.save(User.builder()
+                        .email("query-count-" + u + "@example.com")
+                        .password("x")
+                        .role(roles.get(u % ROLES))
+                        .accountStatus(AccountStatus.ACTIVE)
+                        .createdAt(now)
+                        .build());
+                for (int a = 0; a < APPLICATIONS_PER_USER; a++) {
+                    LoanApplication application = loanApplicationRepository.save(LoanApplication.builder()
+                            .user(user)
+                            .loanProduct(products.get((u + a) % PRODUCTS))
+                            .requestedAmount(10_000_000L)
+                            .requestedTerm(12)
+                            .personalInfo("{}")
+                            .status(LoanApplicationStatus.APPROVED)
+                            .createdAt(now.minusMinutes(u * APPLICATIONS_PER_USER + a))
+                            .disbursedTotal(0L)
+                            .disbursementCount(0L)
+                            .build());
+                    applications.add(application);
+                    disbursementTransactionRepository.save(DisbursementTransaction.builder()
+                            .applicationId(application.getId())
+                            .amount(1_000_000L)
+                            .build());
+                }
+                if (u == 0) {
+                    currentUser = user;
+                }
+            }
+            currentUserApplication = applications.get(0);
+            disbursementTransactionRepository.save(DisbursementTransaction.builder()
+                    .applicationId(currentUserApplication.getId())
+                    .amount(2_000_000L)
+                    .build());
+            // The current user's inbox refers to applications of every other user
+            for (LoanApplication application : applications) {
+                notificationRepository.save(Notification.builder()
+                        .user(currentUser)
+                        .loanApplication(application)
+                        .message("Application " + application.getId())
+                        .isRead(false)
+                        .notificationType(NotificationType.SYSTEM)
+                        .createdAt(now)
+                        .build());
+            }
+        });
+    }
+
+    @BeforeEach
+    void authenticate() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject(currentUser.getEmail())
+                .claim("userId", currentUser.getId())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void loanApplicationPagesUseOneSelectAndCount() {
+        assertStatements(2, () -> loanApplicationService.getAllLoanApplications(PAGE));
+        assertStatements(2, () -> loanApplicationService.getAllLoanApplicationsOfAUser(PAGE));
+    }
+
+    @Test
+    void loanApplicationScrollUsesOneSelectPerPage() {
+        CursorPageResponse<LoanApplicationResponse> first = assertStatements(1,
+                () -> loanApplicationService.scrollLoanApplications(null, 20, false));
+        assertThat(first.getNextCursor()).isNotNull();
+        assertStatements(1, () -> loanApplicationService.scrollLoanApplications(first.getNextCursor(), 20, false));
+        assertStatements(1, () -> loanApplicationService.scrollLoanApplicationsOfAUser(null, 20, false));
+    }
+
+    @Test
+    void loanApplicationByIdUsesOneSelect() {
+        assertStatements(1, () -> loanApplicationService.getLoanApplicationById(currentUserApplication.getId()));
+    }
+
+    @Test
+    void disbursementPagesUseOneSelectAndCount() {
+        assertStatements(2, () -> disbursementTransactionService.getAllDisbursements(PAGE));
+        assertStatements(2, () -> disbursementTransactionService.getDisbursementsByApplication(
+                currentUserApplication.getId(), PAGE));
+        assertStatements(2, () -> disbursementTransactionService.getMyDisbursements(PAGE));
+    }
+
+    @Test
+    void notificationPageUsesOneSelectAndCount() {
+        assertStatements(2, () -> notificationService.getAllNotifications(PAGE));
+    }
+
+    private <T> T assertStatements(int atMost, Supplier<T> listing) {
+        QueryCounter.reset();
+        T result = listing.get();
+        assertThat(QueryCounter.count()).as("SQL statements").isBetween(1, atMost);
+        return result;
+    }
+}
@@ -0,0 +1,142 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.response.CursorPageResponse;
+import com.vdt_project1.loan_management.dto.response.LoanApplicationResponse;
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.entity.LoanProduct;
+import com.vdt_project1.loan_management.entity.User;
+import com.vdt_project1.loan_management.enums.AccountStatus;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.LoanProductRepository;
+import com.vdt_project1.loan_management.repository.UserRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scrolling visits every application exactly once, including those without a
+ * created_at and those sharing one, whatever the page size.
+ */
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoanApplicationScrollTest {
+
+    @Autowired
+    LoanApplicationService loanApplicationService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    LoanProductRepository loanProductRepository;
+    @Autowired
+    LoanApplicationRepository loanApplicationRepository;
+
+    User applicant;
+    // In scroll order: undated rows first, then newest first, ties broken by the higher id
+    List<Long> expectedOrder = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        User admin = userRepository.findByEmail("admin@gmail.com").orElseThrow();
+        applicant = userRepository.save(User.builder()
+                .email("scroll@cursor.test")
+                .password("x")
+                .role(admin.getRole())
+                .accountStatus(AccountStatus.ACTIVE)
+                .build());
+        LoanProduct product = loanProductRepository.save(LoanProduct.builder()
+                .name("Scroll product")
+                .interestRate(12.0)
+                .minAmount(1L)
+                .maxAmount(1_000_000_000L)
+                .minTerm(1)
+                .maxTerm(60)
+                .requiredDocuments("[]")
+                .build());
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime[] createdAt = { now.minusDays(1), null, now, now.minusDays(1), null, now.minusDays(2), null };
+        List<LoanApplication> dated = new ArrayList<>();
+        List<Long> undated = new ArrayList<>();
+        for (LocalDateTime at : createdAt) {
+            LoanApplication application = loanApplicationRepository.save(LoanApplication.builder()
+                    .user(applicant)
+                    .loanProduct(product)
+                    .requestedAmount(10_000_000L)
+                    .requestedTerm(12)
+                    .personalInfo("{}")
+                    .status(LoanApplicationStatus.NEW)
+                    .createdAt(at)
+                    .build());
+            if (at == null) {
+                undated.add(0, application.getId());
+            } else {
+                dated.add(application);
+            }
+        }
+        dated.sort((a, b) -> a.getCreatedAt().equals(b.getCreatedAt()) ? b.getId().compareTo(a.getId())
+                : b.getCreatedAt().compareTo(a.getCreatedAt()));
+        expectedOrder.addAll(undated);
+        dated.forEach(application -> expectedOrder.add(application.getId()));
+    }
+
+    @BeforeEach
+    void authenticate() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject(applicant.getEmail())
+                .claim("userId", applicant.getId())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void userScrollVisitsUndatedAndTiedRowsInOrder() {
+        for (int size = 1; size <= expectedOrder.size(); size++) {
+            int pageSize = size;
+            assertThat(scroll(cursor -> loanApplicationService.scrollLoanApplicationsOfAUser(cursor, pageSize,
+                    false))).as("page size %d", size).containsExactlyElementsOf(expectedOrder);
+        }
+    }
+
+    @Test
+    void fullScrollVisitsEveryApplicationOnce() {
+        List<Long> ids = scroll(cursor -> loanApplicationService.scrollLoanApplications(cursor, 3, false));
+
+        assertThat(ids).doesNotHaveDuplicates().hasSize((int) loanApplicationRepository.count());
+        assertThat(ids).containsSubsequence(expectedOrder);
+    }
+
+    private List<Long> scroll(Function<String, CursorPageResponse<LoanApplicationResponse>> page) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponse<LoanApplicationResponse> response = page.apply(cursor);
+            response.getContent().forEach(application -> ids.add(application.getId()));
+            cursor = response.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+}
@@ -0,0 +1,168 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.entity.LoanApplication;
+import com.vdt_project1.loan_management.entity.LoanProduct;
+import com.vdt_project1.loan_management.entity.ReportApplicationFact;
+import com.vdt_project1.loan_management.entity.User;
+import com.vdt_project1.loan_management.enums.LoanApplicationStatus;
+import com.vdt_project1.loan_management.repository.LoanApplicationRepository;
+import com.vdt_project1.loan_management.repository.LoanProductRepository;
+import com.vdt_project1.loan_management.repository.ReportApplicationFactRepository;
+import com.vdt_project1.loan_management.repository.ReportProductCountRepository;
+import com.vdt_project1.loan_management.repository.UserRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rollup rows are created by the first delta that needs them. Concurrent
+ * writers racing on a missing row must all land their delta. Empty rollup
+ * tables are backfilled on startup one table at a time.
+ */
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class ReportRollupServiceTest {
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 25;
+
+    @Autowired
+    ReportRollupService reportRollupService;
+    @Autowired
+    ReportProductCountRepository productCountRepository;
+    @Autowired
+    ReportApplicationFactRepository applicationFactRepository;
+    @Autowired
+    LoanProductRepository loanProductRepository;
+    @Autowired
+    LoanApplicationRepository loanApplicationRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentDeltasOnAMissingRowAreAllCounted() throws Exception {
+        long productId = 900_001L;
+        LocalDateTime hour = LocalDateTime.of(2001, 1, 1, 9, 0);
+        LoanApplication application = LoanApplication.builder()
+                .loanProduct(LoanProduct.builder().id(productId).build())
+                .status(LoanApplicationStatus.NEW)
+                .requestedAmount(1_000L)
+                .createdAt(hour.plusMinutes(30))
+                .build();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                        transactionTemplate.executeWithoutResult(
+                                status -> reportRollupService.applicationCreated(application));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long expected = (long) THREADS * WRITES_PER_THREAD;
+        assertThat(productCountRepository.findById(productId))
+                .hasValueSatisfying(row -> assertThat(row.getApplicationCount()).isEqualTo(expected));
+        List<ReportApplicationFact> facts = applicationFactRepository.findInRangeForProducts(hour,
+                hour.plusHours(1), EnumSet.of(LoanApplicationStatus.NEW), List.of(productId));
+        assertThat(facts).singleElement().satisfies(fact -> {
+            assertThat(fact.getApplicationCount()).isEqualTo(expected);
+            assertThat(fact.getRequestedAmount()).isEqualTo(expected * 1_000L);
+        });
+    }
+
+    @Test
+    void deltaRollsBackWithTheCaller() {
+        long productId = 900_002L;
+        LoanApplication application = LoanApplication.builder()
+                .loanProduct(LoanProduct.builder().id(productId).build())
+                .status(LoanApplicationStatus.NEW)
+                .requestedAmount(1_000L)
+                .createdAt(LocalDateTime.of(2001, 1, 2, 9, 0))
+                .build();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            reportRollupService.applicationCreated(application);
+            status.setRollbackOnly();
+        });
+
+        assertThat(productCountRepository.findById(productId)).isEmpty();
+    }
+
+    @Test
+    void onlyEmptyRollupTablesAreBackfilled() {
+        LocalDateTime hour = LocalDateTime.of(2001, 1, 3, 9, 0);
+        // Inserted behind the rollups' back, a full rebuild would count it
+        LoanApplication application = transactionTemplate.execute(status -> {
+            User user = userRepository.findByEmail("admin@gmail.com").orElseThrow();
+            LoanProduct product = loanProductRepository.save(LoanProduct.builder()
+                    .name("Backfill product")
+                    .interestRate(12.0)
+                    .minAmount(1L)
+                    .maxAmount(1_000_000_000L)
+                    .minTerm(1)
+                    .maxTerm(60)
+                    .requiredDocuments("[]")
+                    .build());
+            return loanApplicationRepository.save(LoanApplication.builder()
+                    .user(user)
+                    .loanProduct(product)
+                    .requestedAmount(5_000_000L)
+                    .requestedTerm(12)
+                    .personalInfo("{}")
+                    .status(LoanApplicationStatus.NEW)
+                    .createdAt(hour.plusMinutes(5))
+                    .build());
+        });
+        Long productId = application.getLoanProduct().getId();
+        applicationFactRepository.deleteAllInBatch();
+
+        reportRollupService.initialize();
+
+        assertThat(applicationFactRepository.findInRangeForProducts(hour, hour.plusHours(1),
+                EnumSet.of(LoanApplicationStatus.NEW), List.of(productId)))
+                .singleElement()
+                .satisfies(fact -> assertThat(fact.getRequestedAmount()).isEqualTo(5_000_000L));
+        // The product count table was not empty, so it was left alone
+        assertThat(productCountRepository.findById(productId)).isEmpty();
+    }
+
+    @Test
+    void retiredDailyRollupTableIsDropped() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS report_daily_amounts (day DATE PRIMARY KEY)");
+
+        reportRollupService.initialize();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('report_daily_amounts') IS NULL",
+                Boolean.class)).isTrue();
+    }
+}
@@ -0,0 +1,121 @@
+package com.vdt_project1.loan_management.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.vdt_project1.loan_management.configuration.MailSenderProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batches against an in-process SMTP server: one connection per batch, a
+ * reconnect when the server has dropped the pooled connection, and sends
+ * paced by the rate limit.
+ */
+class SmtpBatchSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private JavaMailSenderImpl mailSender;
+    private SmtpTransportPool transportPool;
+
+    @AfterEach
+    void tearDown() {
+        if (transportPool != null) {
+            transportPool.shutdown();
+        }
+    }
+
+    @Test
+    void batchIsSentOverOneConnection() throws Exception {
+        SmtpBatchSender sender = sender(0, 1);
+        Transport connection = pooledConnection();
+
+        List<Exception> results = sender.send(messages(5));
+
+        assertThat(results).hasSize(5).containsOnlyNulls();
+        assertThat(greenMail.getReceivedMessages()).hasSize(5);
+        assertThat(pooledConnection()).isSameAs(connection);
+    }
+
+    @Test
+    void poolReconnectsAfterTheServerDropsTheConnection() throws Exception {
+        SmtpBatchSender sender = sender(0, 1);
+        assertThat(sender.send(messages(2))).containsOnlyNulls();
+        Transport dropped = pooledConnection();
+
+        // Restarting the server closes every open session
+        greenMail.reset();
+        List<Exception> results = sender.send(messages(3));
+
+        assertThat(results).hasSize(3).containsOnlyNulls();
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+        assertThat(pooledConnection()).isNotSameAs(dropped);
+    }
+
+    @Test
+    void rateLimitPacesSends() throws Exception {
+        // One message right away, then one every 50 ms
+        SmtpBatchSender sender = sender(20, 1);
+
+        long start = System.nanoTime();
+        List<Exception> results = sender.send(messages(11));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(results).containsOnlyNulls();
+        assertThat(greenMail.getReceivedMessages()).hasSize(11);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(450);
+    }
+
+    private SmtpBatchSender sender(double rateLimit, int burst) {
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setProtocol("smtp");
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+
+        MailSenderProperties properties = new MailSenderProperties();
+        properties.setPoolSize(1);
+        properties.setRateLimit(rateLimit);
+        properties.setBurst(burst);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        transportPool = new SmtpTransportPool(mailSender, properties, meterRegistry);
+        return new SmtpBatchSender(transportPool, new MailRateLimiter(properties), meterRegistry);
+    }
+
+    // The connection held by the single pooled transport, opened if needed
+    private Transport pooledConnection() throws MessagingException, InterruptedException {
+        SmtpTransportPool.PooledTransport transport = transportPool.borrow();
+        try {
+            return transport.get();
+        } finally {
+            transportPool.release(transport);
+        }
+    }
+
+    private List<MimeMessage> messages(int count) throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MimeMessage message = mailSender.createMimeMessage();
+            message.setFrom(new InternetAddress("noreply@loanconv.test"));
+            message.setRecipient(Message.RecipientType.TO, new InternetAddress("user" + i + "@loanconv.test"));
+            message.setSubject("Batch message " + i);
+            message.setText("Body " + i);
+            messages.add(message);
+        }
+        return messages;
+    }
+}
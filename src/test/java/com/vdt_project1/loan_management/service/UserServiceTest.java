@@ -0,0 +1,95 @@
+package com.vdt_project1.loan_management.service;
+
+import com.vdt_project1.loan_management.dto.request.UserUpdateUserRequest;
+import com.vdt_project1.loan_management.dto.response.CurrentUserDto;
+import com.vdt_project1.loan_management.entity.User;
+import com.vdt_project1.loan_management.enums.AccountStatus;
+import com.vdt_project1.loan_management.repository.UserRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The current-user cache keeps serving the old entry while a change to the
+ * user is uncommitted and drops it once the change commits.
+ */
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class UserServiceTest {
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CurrentUserCache currentUserCache;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void cacheIsEvictedAfterCommitOnly() {
+        User user = user("evict.after.commit@cache.test");
+        AtomicInteger loads = new AtomicInteger();
+        cached(user, loads);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.updateUser(user.getId(), UserUpdateUserRequest.builder().fullName("Renamed").build());
+            cached(user, loads);
+            assertThat(loads).hasValue(1);
+        });
+
+        cached(user, loads);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void rolledBackChangeKeepsTheEntry() {
+        User user = user("rolled.back@cache.test");
+        AtomicInteger loads = new AtomicInteger();
+        cached(user, loads);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.updateUser(user.getId(), UserUpdateUserRequest.builder().fullName("Renamed").build());
+            status.setRollbackOnly();
+        });
+
+        cached(user, loads);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void changeOutsideATransactionEvictsImmediately() {
+        User user = user("no.transaction@cache.test");
+        AtomicInteger loads = new AtomicInteger();
+        cached(user, loads);
+
+        userService.changeUserStatus(user.getId(), "INACTIVE");
+
+        cached(user, loads);
+        assertThat(loads).hasValue(2);
+    }
+
+    private void cached(User user, AtomicInteger loads) {
+        currentUserCache.get(user.getEmail(), email -> {
+            loads.incrementAndGet();
+            return CurrentUserDto.builder().id(user.getId()).email(email).build();
+        });
+    }
+
+    private User user(String email) {
+        User admin = userRepository.findByEmail("admin@gmail.com").orElseThrow();
+        return userRepository.save(User.builder()
+                .email(email)
+                .password("x")
+                .fullName("Cached User")
+                .role(admin.getRole())
+                .accountStatus(AccountStatus.ACTIVE)
+                .build());
+    }
+}